@@ -7,6 +7,7 @@ import com.mojang.blaze3d.vertex.VertexBuffer;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import dev.manifold.mixin.accessor.SectionRenderDispatcher_CompiledSectionAccessor;
 import dev.manifold.mixin.accessor.SectionRenderDispatcher_RenderSectionAccessor;
+import dev.manifold.network.packets.ConstructPoseS2CPacket;
 import dev.manifold.render.ManifoldRenderChunk;
 import dev.manifold.render.ManifoldRenderChunkRegion;
 import dev.manifold.render.ManifoldRenderSection;
@@ -42,6 +43,9 @@ public class ConstructRenderCache {
     private final RenderBuffers buffers = MC.renderBuffers();
     private final HashMap<UUID, CachedConstruct> renderSections = new HashMap<>();
     private final ArrayList<UUID> markedForRemoval = new ArrayList<>();
+    private final Map<UUID, ConstructPoseS2CPacket.Pose> latestPoses = new HashMap<>();
+    private final Map<UUID, PendingMesh> pendingMeshes = new HashMap<>();
+    private long lastPoseTick = Long.MIN_VALUE;
 
     private final Map<UUID, ResourceKey<Level>> constructWorld = new HashMap<>();
     public void setConstructWorld(UUID id, ResourceKey<Level> world) { constructWorld.put(id, world); }
@@ -67,6 +71,10 @@ public class ConstructRenderCache {
     @SuppressWarnings("DataFlowIssue")
     public void uploadMesh(UUID id, BlockPos origin, ManifoldRenderChunkRegion region) {
         if (!isCurrentDimension(id)) return;
+        // Left view and came back before the removal was processed, start over
+        if (markedForRemoval.remove(id)) {
+            renderSections.remove(id);
+        }
         List<ManifoldRenderSection> sectionList = new ArrayList<>();
 
         for (ManifoldRenderChunk renderChunk : region.chunks().values()) {
@@ -120,45 +128,94 @@ public class ConstructRenderCache {
             }
         }
 
-        Optional<Vec3> renderPositionOptional = ConstructManager.INSTANCE.getPosition(id);
-        Optional<Quaternionf> renderRotationOptional = ConstructManager.INSTANCE.getRotation(id);
-        Optional<Vec3> centerOfMassOptional = ConstructManager.INSTANCE.getCenterOfMass(id);
+        CachedConstruct prev = renderSections.get(id);
+
+        // Pose is kept up to date by ConstructPoseS2CPacket, only the sections change here
+        if (prev != null) {
+            renderSections.put(id, new CachedConstruct(
+                    id,
+                    origin,
+                    sectionList,
+                    prev.prevPosition,
+                    prev.currentPosition,
+                    prev.prevRotation,
+                    prev.currentRotation,
+                    prev.centerOfMass
+            ));
+            return;
+        }
 
-        if (renderPositionOptional.isPresent() && renderRotationOptional.isPresent() && centerOfMassOptional.isPresent()) {
-            Vec3 newPos = renderPositionOptional.get();
-            Quaternionf newRot = renderRotationOptional.get();
-            Vec3 newCOM = centerOfMassOptional.get();
+        ConstructPoseS2CPacket.Pose pose = latestPoses.get(id);
+        if (pose == null) {
+            // No transform yet, hold the mesh until the first pose frame arrives
+            pendingMeshes.put(id, new PendingMesh(origin, sectionList));
+            return;
+        }
 
-            CachedConstruct prev = renderSections.get(id);
+        renderSections.put(id, new CachedConstruct(
+                id,
+                origin,
+                sectionList,
+                pose.position(),
+                pose.position(),
+                pose.rotation(),
+                pose.rotation(),
+                pose.centerOfMass()
+        ));
+    }
 
-            if (prev != null) {
-                boolean comChanged = !prev.centerOfMass.equals(newCOM);
+    public void updatePoses(ConstructPoseS2CPacket packet) {
+        if (packet.serverTick() < lastPoseTick) return; // stale frame
+        lastPoseTick = packet.serverTick();
 
+        for (ConstructPoseS2CPacket.Pose pose : packet.poses()) {
+            updatePose(pose);
+        }
+
+        ManifoldClient.lastServerUpdateTime = System.currentTimeMillis();
+    }
+
+    private void updatePose(ConstructPoseS2CPacket.Pose pose) {
+        UUID id = pose.constructId();
+        latestPoses.put(id, pose);
+
+        CachedConstruct prev = renderSections.get(id);
+        if (prev == null) {
+            PendingMesh pending = pendingMeshes.remove(id);
+            if (pending != null) {
                 renderSections.put(id, new CachedConstruct(
                         id,
-                        origin,
-                        sectionList,
-                        comChanged ? newPos : prev.currentPosition,
-                        newPos,
-                        prev.currentRotation,
-                        newRot,
-                        newCOM
-                ));
-            } else {
-                renderSections.put(id, new CachedConstruct(
-                        id,
-                        origin,
-                        sectionList,
-                        newPos,
-                        newPos,
-                        newRot,
-                        newRot,
-                        newCOM
+                        pending.origin(),
+                        pending.sections(),
+                        pose.position(),
+                        pose.position(),
+                        pose.rotation(),
+                        pose.rotation(),
+                        pose.centerOfMass()
                 ));
             }
-
-            ManifoldClient.lastServerUpdateTime = System.currentTimeMillis();
+            return;
         }
+
+        boolean comChanged = !prev.centerOfMass.equals(pose.centerOfMass());
+
+        renderSections.put(id, new CachedConstruct(
+                id,
+                prev.origin,
+                prev.sections,
+                comChanged ? pose.position() : prev.currentPosition,
+                pose.position(),
+                prev.currentRotation,
+                pose.rotation(),
+                pose.centerOfMass()
+        ));
+    }
+
+    /**
+     * Last transform received for a construct, including velocities.
+     */
+    public @Nullable ConstructPoseS2CPacket.Pose getLatestPose(UUID id) {
+        return latestPoses.get(id);
     }
 
     public void renderSections(PoseStack stack, Vec3 camPos, float deltaTicks) {
@@ -318,6 +375,8 @@ public class ConstructRenderCache {
     public void markForRemoval(UUID uuid) {
         this.markedForRemoval.add(uuid);
         constructWorld.remove(uuid);
+        latestPoses.remove(uuid);
+        pendingMeshes.remove(uuid);
     }
 
     public record CachedConstruct(
@@ -332,6 +391,9 @@ public class ConstructRenderCache {
     ) {
     }
 
+    private record PendingMesh(BlockPos origin, List<ManifoldRenderSection> sections) {
+    }
+
     private boolean isCurrentDimension(UUID id) {
         Level level = MC.level;
         ResourceKey<Level> key = constructWorld.get(id);
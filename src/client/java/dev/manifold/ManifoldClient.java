@@ -2,12 +2,12 @@ package dev.manifold;
 
 import com.mojang.blaze3d.vertex.PoseStack;
 import dev.manifold.gui.MassScreen;
+import dev.manifold.init.ManifoldDimensions;
 import dev.manifold.mass.MassManager;
-import dev.manifold.mixin.accessor.LightEngineAccessor;
 import dev.manifold.network.packets.*;
 import dev.manifold.render.ManifoldRenderChunk;
 import dev.manifold.render.ManifoldRenderChunkRegion;
-import io.netty.buffer.Unpooled;
+import dev.manifold.sync.SectionCompression;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -18,15 +18,17 @@ import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderEvents;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Camera;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.multiplayer.ClientPacketListener;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
 import net.minecraft.core.SectionPos;
 import net.minecraft.core.registries.Registries;
-import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.Tag;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.util.Mth;
+import net.minecraft.world.Difficulty;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Inventory;
@@ -41,8 +43,8 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.DataLayer;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.dimension.DimensionType;
 import net.minecraft.world.level.lighting.LayerLightEventListener;
-import net.minecraft.world.level.lighting.LayerLightSectionStorage;
 import net.minecraft.world.level.lighting.LevelLightEngine;
 import net.minecraft.world.level.lighting.LightEngine;
 import net.minecraft.world.phys.AABB;
@@ -55,15 +57,53 @@ import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 @Environment(EnvType.CLIENT)
 public class ManifoldClient implements ClientModInitializer {
     public static final long SERVER_TICK_MS = 50L;
     private static final Map<UUID, ManifoldRenderChunkRegion> regions = new HashMap<>();
+    private static final Map<UUID, ConstructDictionaryS2CPacket> dictionaries = new HashMap<>();
+    private static final Inflater inflater = new Inflater();
+    // Constructs a resync was requested for and not yet answered
+    private static final Set<UUID> pendingResyncs = new HashSet<>();
     public static @Nullable ManifoldRenderChunkRegion currentConstructRegion;
     public static long lastServerUpdateTime = System.currentTimeMillis();
     public static @Nullable ConstructBlockHitResult lastConstructHit;
     private static ConstructRenderCache renderer = null;
+    // Client copy of the sim dimension, owns the construct chunks and their light so nothing here touches the server
+    private static @Nullable ClientLevel simLevel = null;
+
+    public static @Nullable ClientLevel getSimLevel() {
+        return simLevel;
+    }
+
+    private static @Nullable ClientLevel createSimLevel(Minecraft client) {
+        ClientPacketListener connection = client.getConnection();
+        if (connection == null) return null;
+
+        Optional<Holder.Reference<DimensionType>> type = connection.registryAccess()
+                .registryOrThrow(Registries.DIMENSION_TYPE)
+                .getHolder(ManifoldDimensions.SIM_TYPE);
+        if (type.isEmpty()) {
+            Manifold.LOGGER.warn("Server did not send the sim dimension type, constructs will not be rendered");
+            return null;
+        }
+
+        return new ClientLevel(
+                connection,
+                new ClientLevel.ClientLevelData(Difficulty.NORMAL, false, false),
+                ManifoldDimensions.SIM_WORLD,
+                type.get(),
+                0,
+                0,
+                client::getProfiler,
+                client.levelRenderer,
+                false,
+                0L
+        );
+    }
 
     public static void handlePickItem(Minecraft minecraft, LocalPlayer player, boolean creative, ItemStack itemStack) {
         Inventory inventory = player.getInventory();
@@ -174,6 +214,10 @@ public class ManifoldClient implements ClientModInitializer {
         // Reinitialize renderer whenever the level changes
         ClientWorldEvents.AFTER_CLIENT_WORLD_CHANGE.register((client, world) -> {
             renderer = new ConstructRenderCache();
+            simLevel = createSimLevel(client);
+            regions.clear();
+            dictionaries.clear();
+            pendingResyncs.clear();
             Manifold.LOGGER.info("ConstructRenderCache initialized.");
         });
 
@@ -202,7 +246,15 @@ public class ManifoldClient implements ClientModInitializer {
         });
 
         ClientPlayNetworking.registerGlobalReceiver(ConstructSectionDataS2CPacket.TYPE, (packet, context) ->
-                context.client().execute(() -> handleConstructSectionData(packet))
+                context.client().execute(() -> applyConstructSectionData(packet))
+        );
+
+        ClientPlayNetworking.registerGlobalReceiver(ConstructDictionaryS2CPacket.TYPE, (packet, context) ->
+                context.client().execute(() -> dictionaries.put(packet.constructId(), packet))
+        );
+
+        ClientPlayNetworking.registerGlobalReceiver(ConstructPoseS2CPacket.TYPE, (packet, context) ->
+                context.client().execute(() -> handleConstructPose(packet))
         );
 
         ClientPlayNetworking.registerGlobalReceiver(PickConstructBlockWithDataS2CPacket.TYPE, (packet, context) ->
@@ -254,65 +306,81 @@ public class ManifoldClient implements ClientModInitializer {
         handlePickItem(minecraft, player, creative, itemStack);
     }
 
-    private void handleConstructSectionData(ConstructSectionDataS2CPacket packet) {
-        if (renderer == null) return;
+    private void applyConstructSectionData(ConstructSectionDataS2CPacket packet) {
+        if (renderer == null || simLevel == null) return;
 
         Level clientLevel = Minecraft.getInstance().level;
         if (clientLevel == null || !clientLevel.dimension().equals(packet.worldKey())) {
             return;
         }
 
+        byte[] dictionary = new byte[0];
+        if (packet.dictionaryVersion() != 0) {
+            ConstructDictionaryS2CPacket known = dictionaries.get(packet.constructId());
+            if (known == null || known.version() != packet.dictionaryVersion()) {
+                Manifold.LOGGER.warn("Missing dictionary {} for construct {}", packet.dictionaryVersion(), packet.constructId());
+                requestResync(packet.constructId());
+                return;
+            }
+            dictionary = known.dictionary();
+        }
+
+        // Decode the whole packet before touching any chunk, so a bad body never leaves half of it applied
+        List<DecodedChunk> decoded = new ArrayList<>(packet.chunkCount());
+        FriendlyByteBuf chunks = new FriendlyByteBuf(packet.chunks().duplicate());
+        try {
+            for (int i = 0; i < packet.chunkCount(); i++) {
+                int cx = packet.minChunkX() + chunks.readVarInt();
+                int cz = packet.minChunkZ() + chunks.readVarInt();
+                BitSet included = chunks.readBitSet();
+                decoded.add(new DecodedChunk(cx, cz, decodeSections(simLevel, included, chunks, dictionary)));
+            }
+        } catch (DataFormatException | RuntimeException e) {
+            Manifold.LOGGER.error("Corrupt section data for construct {}", packet.constructId(), e);
+            requestResync(packet.constructId());
+            return;
+        }
+        pendingResyncs.remove(packet.constructId());
+
         renderer.setConstructWorld(packet.constructId(), packet.worldKey());
 
-        List<CompoundTag> chunkNbtList = packet.chunkNbtList();
         int countX = packet.chunkSizeX();
         int countZ = packet.chunkSizeZ();
 
         Level level = Minecraft.getInstance().level;
+        ManifoldRenderChunkRegion previous = regions.get(packet.constructId());
+
+        // The packet only carries chunks with sections that changed since the last one
+        Map<Long, LevelChunk> changedChunks = new HashMap<>();
+        for (DecodedChunk changed : decoded) {
+            long chunkKey = ManifoldRenderChunkRegion.chunkPosToLong(changed.x(), changed.z());
+            ManifoldRenderChunk existing = previous != null ? previous.chunks().get(chunkKey) : null;
+            LevelChunk chunk = existing != null
+                    ? existing.getWrappedChunk()
+                    : new LevelChunk(simLevel, new ChunkPos(changed.x(), changed.z()));
+
+            applySections(simLevel.getLightEngine(), chunk, changed.sections());
+            changedChunks.put(chunkKey, chunk);
+        }
+
         Map<Long, ManifoldRenderChunk> chunkArray = new HashMap<>();
-        LevelLightEngine lightEngine = ConstructManager.INSTANCE.getSimDimension().getLightEngine();
-
-        for (CompoundTag tag : chunkNbtList) {
-            ChunkPos pos = new ChunkPos(tag.getInt("xPos"), tag.getInt("zPos"));
-            LevelChunk chunk = new LevelChunk(ConstructManager.INSTANCE.getSimDimension(), pos);
-
-            if (tag.contains("Sections", Tag.TAG_COMPOUND)) {
-                CompoundTag sectionsTag = tag.getCompound("Sections");
-
-                for (int y = 0; y < chunk.getSections().length; y++) {
-                    int sectionY = y + chunk.getMinSection();
-                    SectionPos sectionPos = SectionPos.of(pos, sectionY);
-                    long sectionKey = sectionPos.asLong();
-
-                    // Reconstruct section block data
-                    String sectionKeyStr = "Section_" + sectionY;
-                    if (sectionsTag.contains(sectionKeyStr, Tag.TAG_BYTE_ARRAY)) {
-                        byte[] sectionBytes = sectionsTag.getByteArray(sectionKeyStr);
-                        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(sectionBytes));
-                        LevelChunkSection section = new LevelChunkSection(level.registryAccess().registryOrThrow(Registries.BIOME));
-                        section.read(buf);
-                        chunk.getSections()[y] = section;
-                    }
 
-                    // Reconstruct light data
-                    for (LightLayer layer : LightLayer.values()) {
-                        String lightKey = layer.name() + "Light_" + sectionY;
-                        if (sectionsTag.contains(lightKey, Tag.TAG_BYTE_ARRAY)) {
-                            byte[] lightData = sectionsTag.getByteArray(lightKey);
-                            DataLayer layerData = new DataLayer(lightData.clone());
-
-                            LayerLightEventListener listener = lightEngine.getLayerListener(layer);
-                            if (listener instanceof LightEngine<?, ?> engine) {
-                                LayerLightSectionStorage<?> storage = ((LightEngineAccessor) engine).manifold$getStorage();
-                                lightEngine.queueSectionData(layer, sectionPos, layerData);
-                            }
-                        }
-                    }
+        for (int cx = packet.minChunkX(); cx < packet.minChunkX() + countX; cx++) {
+            for (int cz = packet.minChunkZ(); cz < packet.minChunkZ() + countZ; cz++) {
+                long chunkKey = ManifoldRenderChunkRegion.chunkPosToLong(cx, cz);
+                LevelChunk changed = changedChunks.get(chunkKey);
+                if (changed != null) {
+                    chunkArray.put(chunkKey, new ManifoldRenderChunk(changed));
+                    continue;
                 }
-            }
 
-            chunkArray.put(ManifoldRenderChunkRegion.chunkPosToLong(pos.x, pos.z), new ManifoldRenderChunk(chunk));
+                ManifoldRenderChunk existing = previous != null ? previous.chunks().get(chunkKey) : null;
+                chunkArray.put(chunkKey, existing != null
+                        ? existing
+                        : new ManifoldRenderChunk(new LevelChunk(simLevel, new ChunkPos(cx, cz))));
+            }
         }
+        simLevel.getLightEngine().runLightUpdates();
 
         ManifoldRenderChunkRegion region = new ManifoldRenderChunkRegion(
                 level, packet.minChunkX(), packet.minChunkZ(), countX, countZ, chunkArray
@@ -322,11 +390,106 @@ public class ManifoldClient implements ClientModInitializer {
         renderer.uploadMesh(packet.constructId(), packet.origin(), region);
     }
 
+    /**
+     * Asks the server to resend a construct in full, at most once until a packet for it applies again.
+     */
+    private static void requestResync(UUID constructId) {
+        if (pendingResyncs.add(constructId)) {
+            ClientPlayNetworking.send(new ConstructResyncC2SPacket(constructId));
+        }
+    }
+
+    private record DecodedSection(int index, LevelChunkSection section, @Nullable DataLayer blockLight, @Nullable DataLayer skyLight) {
+    }
+
+    private record DecodedChunk(int x, int z, List<DecodedSection> sections) {
+    }
+
+    private static List<DecodedSection> decodeSections(ClientLevel level, BitSet included, FriendlyByteBuf chunks, byte[] dictionary) throws DataFormatException {
+        List<DecodedSection> sections = new ArrayList<>(included.cardinality());
+
+        for (int y = included.nextSetBit(0); y >= 0; y = included.nextSetBit(y + 1)) {
+            int flags = chunks.readByte();
+            FriendlyByteBuf buf = (flags & ConstructSectionDataS2CPacket.COMPRESSED) != 0
+                    ? SectionCompression.inflate(inflater, chunks, dictionary)
+                    : chunks;
+
+            // A changed section without blocks is now empty
+            LevelChunkSection section = new LevelChunkSection(level.registryAccess().registryOrThrow(Registries.BIOME));
+            if ((flags & ConstructSectionDataS2CPacket.HAS_BLOCKS) != 0) {
+                section.read(buf);
+            }
+            DataLayer blockLight = (flags & ConstructSectionDataS2CPacket.HAS_BLOCK_LIGHT) != 0
+                    ? ConstructSectionDataS2CPacket.readLight(buf)
+                    : null;
+            DataLayer skyLight = (flags & ConstructSectionDataS2CPacket.HAS_SKY_LIGHT) != 0
+                    ? ConstructSectionDataS2CPacket.readLight(buf)
+                    : null;
+            sections.add(new DecodedSection(y, section, blockLight, skyLight));
+        }
+        return sections;
+    }
+
+    private static void applySections(LevelLightEngine lightEngine, LevelChunk chunk, List<DecodedSection> sections) {
+        ChunkPos pos = chunk.getPos();
+        lightEngine.retainData(pos, true);
+        lightEngine.setLightEnabled(pos, true);
+
+        for (DecodedSection decoded : sections) {
+            int y = decoded.index();
+            SectionPos sectionPos = SectionPos.of(pos, y + chunk.getMinSection());
+            if (y < chunk.getSections().length) {
+                chunk.getSections()[y] = decoded.section();
+            }
+            lightEngine.updateSectionStatus(sectionPos, decoded.section().hasOnlyAir());
+
+            if (decoded.blockLight() != null) {
+                queueLight(lightEngine, LightLayer.BLOCK, sectionPos, decoded.blockLight());
+            }
+            if (decoded.skyLight() != null) {
+                queueLight(lightEngine, LightLayer.SKY, sectionPos, decoded.skyLight());
+            }
+        }
+    }
+
+    private static void queueLight(LevelLightEngine lightEngine, LightLayer layer, SectionPos sectionPos, DataLayer data) {
+        LayerLightEventListener listener = lightEngine.getLayerListener(layer);
+        if (listener instanceof LightEngine<?, ?>) {
+            lightEngine.queueSectionData(layer, sectionPos, data);
+        }
+    }
+
+    private void handleConstructPose(ConstructPoseS2CPacket packet) {
+        if (renderer == null) return;
+        renderer.updatePoses(packet);
+    }
+
     private void handleRemoveConstruct(RemoveConstructS2CPacket packet) {
         Level level = Minecraft.getInstance().level;
         if (level == null) return;
         var worldKey = renderer.getConstructWorld(packet.constructId());
         if (worldKey != null && !level.dimension().equals(worldKey)) return;
+        ManifoldRenderChunkRegion region = regions.remove(packet.constructId());
+        if (region != null && simLevel != null) {
+            forgetLight(simLevel.getLightEngine(), region);
+        }
+        dictionaries.remove(packet.constructId());
+        pendingResyncs.remove(packet.constructId());
         renderer.markForRemoval(packet.constructId());
     }
+
+    private static void forgetLight(LevelLightEngine lightEngine, ManifoldRenderChunkRegion region) {
+        for (ManifoldRenderChunk chunk : region.chunks().values()) {
+            ChunkPos pos = chunk.getWrappedChunk().getPos();
+            lightEngine.setLightEnabled(pos, false);
+            lightEngine.retainData(pos, false);
+            for (int y = lightEngine.getMinLightSection(); y < lightEngine.getMaxLightSection(); y++) {
+                lightEngine.queueSectionData(LightLayer.BLOCK, SectionPos.of(pos, y), null);
+            }
+            for (int y = chunk.getWrappedChunk().getMinSection(); y < chunk.getWrappedChunk().getMaxSection(); y++) {
+                lightEngine.updateSectionStatus(SectionPos.of(pos, y), true);
+            }
+        }
+        lightEngine.runLightUpdates();
+    }
 }
\ No newline at end of file
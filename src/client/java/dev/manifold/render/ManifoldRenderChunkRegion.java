@@ -3,8 +3,10 @@ package dev.manifold.render;
 import dev.manifold.ConstructManager;
 import dev.manifold.DynamicConstruct;
 import dev.manifold.Manifold;
+import dev.manifold.ManifoldClient;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.SectionPos;
@@ -23,7 +25,6 @@ import org.jetbrains.annotations.Nullable;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @Environment(EnvType.CLIENT)
 public record ManifoldRenderChunkRegion(
@@ -79,21 +80,20 @@ public record ManifoldRenderChunkRegion(
         }
 
         // BLOCK layer: check all nearby constructs
-        int maxLight = 0;
-
-        Vec3 worldPos = Vec3.atCenterOf(pos);
-
-        Optional<UUID> uuidOptional = ConstructManager.INSTANCE.getConstructAt(worldPos);
+        ConstructManager manager = ConstructManager.INSTANCE;
+        DynamicConstruct owner = manager.getConstructByHandle(manager.getConstructHandleAt(pos.getX(), pos.getZ()));
+        if (owner == null) return 0;
 
-        if (uuidOptional.isEmpty()) return 0;
+        ClientLevel simLevel = ManifoldClient.getSimLevel();
+        if (simLevel == null) return 0;
 
-        List<DynamicConstruct> nearbyConstructs = ConstructManager.INSTANCE.getNearbyConstructs(level.dimension(), ConstructManager.INSTANCE.getRenderPosFromSim(uuidOptional.get(), worldPos), 2); // 2 chunks radius
+        int maxLight = 0;
+        Vec3 renderPos = manager.getRenderPosFromSim(owner, Vec3.atCenterOf(pos));
+        List<DynamicConstruct> nearbyConstructs = manager.getNearbyConstructs(level.dimension(), renderPos, 2); // 2 chunks radius
+        LevelLightEngine simEngine = simLevel.getLightEngine();
 
         for (DynamicConstruct construct : nearbyConstructs) {
-            Vec3 renderPosFromSim = ConstructManager.INSTANCE.getRenderPosFromSim(uuidOptional.get(), worldPos);
-            BlockPos simPosFromRender = ConstructManager.INSTANCE.getSimPosFromRender(construct.getId(), renderPosFromSim);
-
-            LevelLightEngine simEngine = ConstructManager.INSTANCE.getSimDimension().getLightEngine();
+            BlockPos simPosFromRender = manager.getSimPosFromRender(construct, renderPos);
             int light = simEngine.getLayerListener(LightLayer.BLOCK).getLightValue(simPosFromRender);
             if (light > maxLight) {
                 maxLight = light;
@@ -107,24 +107,23 @@ public record ManifoldRenderChunkRegion(
     @Override
     public int getRawBrightness(BlockPos blockPos, int lightReduction) {
         // Sky light from render world (unchanged)
-        Optional<UUID> uuid = ConstructManager.INSTANCE.getConstructAt(Vec3.atLowerCornerOf(blockPos));
-        if (uuid.isEmpty()) return 0;
-        Vec3 skyPos = ConstructManager.INSTANCE.getRenderPosFromSim(
-                uuid.get(),
-                Vec3.atLowerCornerOf(blockPos)
-        );
+        ConstructManager manager = ConstructManager.INSTANCE;
+        DynamicConstruct owner = manager.getConstructByHandle(manager.getConstructHandleAt(blockPos.getX(), blockPos.getZ()));
+        if (owner == null) return 0;
+        Vec3 skyPos = manager.getRenderPosFromSim(owner, Vec3.atLowerCornerOf(blockPos));
         int skyLight = getLightEngine().getLayerListener(LightLayer.SKY)
                 .getLightValue(blockPos.offset((int) skyPos.x, (int) skyPos.y, (int) skyPos.z)) - lightReduction;
 
         // Block light from nearby constructs in render space
         int blockLight = 0;
-        List<DynamicConstruct> nearby = ConstructManager.INSTANCE.getNearbyConstructs(level.dimension(), Vec3.atCenterOf(blockPos), 2);
+        ClientLevel simLevel = ManifoldClient.getSimLevel();
+        if (simLevel == null) return skyLight;
+        Vec3 center = Vec3.atCenterOf(blockPos);
+        List<DynamicConstruct> nearby = manager.getNearbyConstructs(level.dimension(), center, 2);
+        LevelLightEngine simEngine = simLevel.getLightEngine();
         for (DynamicConstruct construct : nearby) {
-            BlockPos simPos = ConstructManager.INSTANCE.getSimPosFromRender(construct.getId(), Vec3.atCenterOf(blockPos));
-            int val = ConstructManager.INSTANCE.getSimDimension()
-                    .getLightEngine()
-                    .getLayerListener(LightLayer.BLOCK)
-                    .getLightValue(simPos);
+            BlockPos simPos = manager.getSimPosFromRender(construct, center);
+            int val = simEngine.getLayerListener(LightLayer.BLOCK).getLightValue(simPos);
             blockLight = Math.max(blockLight, val);
             if (blockLight >= 15) break;
         }
@@ -1,144 +1,492 @@
 package dev.manifold;
 
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * A union-find-based structure that incrementally tracks connected groups of BlockPos.
  * Allows block addition, removal, and explicit disconnection (breaking links).
+ * <p>
+ * Blocks are stored by packed {@link BlockPos#asLong} key in a primitive map to a slot index.
+ * Per slot there is an int parent, a byte rank and a 6-bit mask of the neighbors it is linked to
+ * (bit = {@link Direction#get3DDataValue()}), so no per-block objects are allocated.
+ * <p>
+ * Removed blocks leave a tombstone slot behind, since other slots may still point through it;
+ * once tombstones outnumber live blocks the forest is rebuilt from the neighbor masks.
+ * <p>
+ * The live members of each component are also threaded on an intrusive circular list
+ * ({@code next}/{@code prev} per slot) that union splices in O(1), with the member count kept at the root.
+ * Fetching a group costs O(group size) and the number of components is always known.
+ * <p>
+ * {@link #breakBlock} detects islands cut off by a removal with a search bounded by the removed
+ * block's neighbors, so the common still-connected case only touches the blocks around the hole.
  */
 public class BlockUnionGraph {
-    private final Map<BlockPos, BlockPos> parent = new HashMap<>();
-    private final Map<BlockPos, Set<BlockPos>> adjacency = new HashMap<>();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MIN_COMPACT = 1024;
 
-    public void addBlock(BlockPos pos) {
-        if (parent.containsKey(pos)) return;
+    // packed position -> slot
+    private final Long2IntOpenHashMap slots = new Long2IntOpenHashMap();
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private byte[] rank = new byte[INITIAL_CAPACITY];
+    private byte[] links = new byte[INITIAL_CAPACITY];
+    // Circular member list of each component, live slots only
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] prev = new int[INITIAL_CAPACITY];
+    // Live member count, valid at roots
+    private int[] count = new int[INITIAL_CAPACITY];
+    private int size;
+    private int tombstones;
+    private int components;
+
+    // Island search scratch: the stamp marks slots seen by the current search, label says which source reached them
+    private int[] searchStamp = new int[INITIAL_CAPACITY];
+    private byte[] searchLabel = new byte[INITIAL_CAPACITY];
+    private int stamp;
+
+    public BlockUnionGraph() {
+        slots.defaultReturnValue(NONE);
+    }
 
-        parent.put(pos, pos);
-        adjacency.put(pos, new HashSet<>());
+    public void addBlock(BlockPos pos) {
+        long key = pos.asLong();
+        if (slots.containsKey(key)) return;
 
-        for (Direction dir : Direction.values()) {
-            BlockPos neighbor = pos.relative(dir);
-            if (parent.containsKey(neighbor)) {
+        int slot = allocate(key);
+        for (Direction dir : DIRECTIONS) {
+            int neighbor = slots.get(BlockPos.offset(key, dir));
+            if (neighbor != NONE) {
                 // Mutual linking
-                adjacency.get(pos).add(neighbor);
-                adjacency.get(neighbor).add(pos);
-                union(pos, neighbor);
+                links[slot] |= (byte) (1 << dir.get3DDataValue());
+                links[neighbor] |= (byte) (1 << dir.getOpposite().get3DDataValue());
+                unionSlots(slot, neighbor);
             }
         }
     }
 
     public void removeBlock(BlockPos pos) {
-        if (!parent.containsKey(pos)) return;
-
-        // Clean up adjacency
-        Set<BlockPos> neighbors = adjacency.remove(pos);
-        if (neighbors != null) {
-            for (BlockPos neighbor : neighbors) {
-                Set<BlockPos> set = adjacency.get(neighbor);
-                if (set != null) {
-                    set.remove(pos);
-                }
+        long key = pos.asLong();
+        int slot = slots.remove(key);
+        if (slot == NONE) return;
+
+        // Clean up neighbor links
+        int mask = links[slot];
+        for (Direction dir : DIRECTIONS) {
+            if ((mask & (1 << dir.get3DDataValue())) == 0) continue;
+            int neighbor = slots.get(BlockPos.offset(key, dir));
+            if (neighbor != NONE) {
+                links[neighbor] &= (byte) ~(1 << dir.getOpposite().get3DDataValue());
             }
         }
+        links[slot] = 0;
 
-        parent.remove(pos);
+        // Leave the member list; the component disappears with its last live block
+        int root = findSlot(slot);
+        if (--count[root] == 0) {
+            components--;
+        }
+        unlink(slot);
+        tombstones++;
 
         // Optionally: flag entire component as dirty for rebuild (if needed)
+        if (tombstones >= MIN_COMPACT && tombstones > slots.size()) {
+            compact();
+        }
     }
 
-    public void disconnect(BlockPos a, BlockPos b) {
-        if (!adjacency.containsKey(a) || !adjacency.containsKey(b)) return;
+    /**
+     * Removes a block and returns the groups that it cut off from the rest of its group.
+     * <p>
+     * One breadth-first search runs from each linked neighbor of the removed block, interleaved a block at a time.
+     * Searches that meet are merged, and the whole thing stops as soon as at most one merged search is still
+     * expanding. A search that runs out of blocks first has enumerated a complete island; the one left over is the
+     * main body and is never walked in full. The islands stay in this graph, still united with the main body,
+     * until the caller removes them.
+     */
+    public List<Set<BlockPos>> breakBlock(BlockPos pos) {
+        long key = pos.asLong();
+        int slot = slots.get(key);
+        if (slot == NONE) return Collections.emptyList();
 
-        adjacency.get(a).remove(b);
-        adjacency.get(b).remove(a);
+        // Neighbor positions, since removal may compact and renumber slots
+        long[] sources = new long[DIRECTIONS.length];
+        int sourceCount = 0;
+        int mask = links[slot];
+        for (Direction dir : DIRECTIONS) {
+            if ((mask & (1 << dir.get3DDataValue())) != 0) {
+                sources[sourceCount++] = BlockPos.offset(key, dir);
+            }
+        }
 
-        // If they were connected in the same component, we need to recheck that component
-        if (connected(a, b)) {
-            // Rebuild both components from scratch
-            Set<BlockPos> groupA = bfs(a);
-            Set<BlockPos> groupB = bfs(b);
+        removeBlock(pos);
+        if (sourceCount < 2) return Collections.emptyList();
+        return findIslands(sources, sourceCount);
+    }
+
+    private List<Set<BlockPos>> findIslands(long[] sources, int sourceCount) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(searchStamp, 0);
+            stamp = 1;
+        }
 
-            // Reset parent entries for both groups
-            for (BlockPos p : groupA) parent.put(p, p);
-            for (BlockPos p : groupB) parent.put(p, p);
+        IntArrayFIFOQueue[] frontiers = new IntArrayFIFOQueue[sourceCount];
+        IntArrayList[] reached = new IntArrayList[sourceCount];
+        // Tiny union-find over the searches themselves
+        int[] merged = new int[sourceCount];
+        boolean[] finished = new boolean[sourceCount];
+        int searches = 0;
 
-            // Re-union within each group
-            reUnionGroup(groupA);
-            reUnionGroup(groupB);
+        for (int i = 0; i < sourceCount; i++) {
+            int slot = slots.get(sources[i]);
+            merged[i] = i;
+            frontiers[i] = new IntArrayFIFOQueue();
+            reached[i] = new IntArrayList();
+            if (slot == NONE) {
+                finished[i] = true;
+                continue;
+            }
+            if (searchStamp[slot] == stamp) {
+                // Two links to the same block can't happen, but don't count it twice if it does
+                finished[i] = true;
+                continue;
+            }
+            searchStamp[slot] = stamp;
+            searchLabel[slot] = (byte) i;
+            frontiers[i].enqueue(slot);
+            reached[i].add(slot);
+            searches++;
         }
-    }
 
-    private void reUnionGroup(Set<BlockPos> group) {
-        for (BlockPos pos : group) {
-            for (BlockPos neighbor : adjacency.getOrDefault(pos, Collections.emptySet())) {
-                if (group.contains(neighbor)) {
-                    union(pos, neighbor);
+        List<Set<BlockPos>> islands = new ArrayList<>();
+        while (searches > 1) {
+            for (int i = 0; i < sourceCount && searches > 1; i++) {
+                if (frontiers[i].isEmpty()) continue;
+
+                int current = frontiers[i].dequeueInt();
+                long key = positions[current];
+                int mask = links[current];
+                for (Direction dir : DIRECTIONS) {
+                    if ((mask & (1 << dir.get3DDataValue())) == 0) continue;
+                    int neighbor = slots.get(BlockPos.offset(key, dir));
+                    if (neighbor == NONE) continue;
+
+                    if (searchStamp[neighbor] != stamp) {
+                        searchStamp[neighbor] = stamp;
+                        searchLabel[neighbor] = (byte) i;
+                        frontiers[i].enqueue(neighbor);
+                        reached[i].add(neighbor);
+                    } else {
+                        int a = rootSearch(merged, i);
+                        int b = rootSearch(merged, searchLabel[neighbor]);
+                        if (a != b) {
+                            // The two searches met: same piece
+                            merged[b] = a;
+                            searches--;
+                        }
+                    }
                 }
             }
+
+            // Any merged search with nothing left to expand is a closed island
+            for (int i = 0; i < sourceCount && searches > 1; i++) {
+                int root = rootSearch(merged, i);
+                if (root != i || finished[i] || !exhausted(merged, frontiers, root)) continue;
+
+                Set<BlockPos> island = new HashSet<>();
+                for (int j = 0; j < sourceCount; j++) {
+                    if (rootSearch(merged, j) != root) continue;
+                    finished[j] = true;
+                    IntArrayList list = reached[j];
+                    for (int k = 0; k < list.size(); k++) {
+                        island.add(BlockPos.of(positions[list.getInt(k)]));
+                    }
+                }
+                islands.add(island);
+                searches--;
+            }
+        }
+
+        return islands;
+    }
+
+    private static int rootSearch(int[] merged, int i) {
+        while (merged[i] != i) {
+            i = merged[i];
+        }
+        return i;
+    }
+
+    private static boolean exhausted(int[] merged, IntArrayFIFOQueue[] frontiers, int root) {
+        for (int j = 0; j < merged.length; j++) {
+            if (rootSearch(merged, j) == root && !frontiers[j].isEmpty()) return false;
+        }
+        return true;
+    }
+
+    public void disconnect(BlockPos a, BlockPos b) {
+        int slotA = slots.get(a.asLong());
+        int slotB = slots.get(b.asLong());
+        if (slotA == NONE || slotB == NONE) return;
+
+        Direction dir = Direction.fromDelta(b.getX() - a.getX(), b.getY() - a.getY(), b.getZ() - a.getZ());
+        if (dir != null) {
+            links[slotA] &= (byte) ~(1 << dir.get3DDataValue());
+            links[slotB] &= (byte) ~(1 << dir.getOpposite().get3DDataValue());
         }
+
+        // If they were connected in the same component, we need to recheck that component
+        if (findSlot(slotA) == findSlot(slotB)) {
+            // Rebuild the component from scratch along the remaining links
+            IntArrayList group = members(slotA);
+            components--;
+            resetGroup(group);
+            reUnionGroup(group);
+        }
+    }
+
+    // Live slots in the same component as slot, read off its member ring
+    private IntArrayList members(int slot) {
+        IntArrayList group = new IntArrayList(count[findSlot(slot)]);
+        int member = slot;
+        do {
+            group.add(member);
+            member = next[member];
+        } while (member != slot);
+        return group;
     }
 
-    private Set<BlockPos> bfs(BlockPos start) {
-        Set<BlockPos> visited = new HashSet<>();
-        Queue<BlockPos> queue = new ArrayDeque<>();
-        queue.add(start);
-        visited.add(start);
+    private void resetGroup(IntArrayList group) {
+        for (int i = 0; i < group.size(); i++) {
+            int slot = group.getInt(i);
+            parent[slot] = slot;
+            rank[slot] = 0;
+            next[slot] = slot;
+            prev[slot] = slot;
+            count[slot] = 1;
+        }
+        components += group.size();
+    }
 
-        while (!queue.isEmpty()) {
-            BlockPos current = queue.poll();
-            for (BlockPos neighbor : adjacency.getOrDefault(current, Collections.emptySet())) {
-                if (visited.add(neighbor)) {
-                    queue.add(neighbor);
+    private void reUnionGroup(IntArrayList group) {
+        for (int i = 0; i < group.size(); i++) {
+            int slot = group.getInt(i);
+            long key = positions[slot];
+            int mask = links[slot];
+            for (Direction dir : DIRECTIONS) {
+                if ((mask & (1 << dir.get3DDataValue())) == 0) continue;
+                int neighbor = slots.get(BlockPos.offset(key, dir));
+                if (neighbor != NONE) {
+                    unionSlots(slot, neighbor);
                 }
             }
         }
-
-        return visited;
     }
 
     public BlockPos find(BlockPos pos) {
-        BlockPos p = parent.get(pos);
-        if (p == null) return null;
-        if (!p.equals(pos)) {
-            BlockPos root = find(p);
-            parent.put(pos, root);
-            return root;
-        }
-        return p;
+        int slot = slots.get(pos.asLong());
+        if (slot == NONE) return null;
+        return BlockPos.of(positions[findSlot(slot)]);
     }
 
+    /**
+     * Joins the groups of a and b. Adjacent blocks are also linked again, since the neighbor masks are what
+     * compaction, {@link #disconnect} and {@link #breakBlock} rebuild from; this is how a disconnect is undone.
+     */
     public void union(BlockPos a, BlockPos b) {
-        BlockPos rootA = find(a);
-        BlockPos rootB = find(b);
-        if (rootA != null && rootB != null && !rootA.equals(rootB)) {
-            parent.put(rootA, rootB);
+        int slotA = slots.get(a.asLong());
+        int slotB = slots.get(b.asLong());
+        if (slotA == NONE || slotB == NONE) return;
+
+        Direction dir = Direction.fromDelta(b.getX() - a.getX(), b.getY() - a.getY(), b.getZ() - a.getZ());
+        if (dir != null) {
+            links[slotA] |= (byte) (1 << dir.get3DDataValue());
+            links[slotB] |= (byte) (1 << dir.getOpposite().get3DDataValue());
         }
+        unionSlots(slotA, slotB);
     }
 
     public boolean connected(BlockPos a, BlockPos b) {
-        BlockPos rootA = find(a);
-        BlockPos rootB = find(b);
-        return rootA != null && rootA.equals(rootB);
+        int slotA = slots.get(a.asLong());
+        int slotB = slots.get(b.asLong());
+        return slotA != NONE && slotB != NONE && findSlot(slotA) == findSlot(slotB);
     }
 
     public Set<BlockPos> getGroup(BlockPos root) {
-        BlockPos canonical = find(root);
-        if (canonical == null) return Collections.emptySet();
+        if (root == null) return Collections.emptySet();
+        int slot = slots.get(root.asLong());
+        if (slot == NONE) return Collections.emptySet();
 
-        Set<BlockPos> group = new HashSet<>();
-        for (BlockPos pos : parent.keySet()) {
-            if (canonical.equals(find(pos))) {
-                group.add(pos);
-            }
-        }
+        // Walk the component's member ring
+        Set<BlockPos> group = new HashSet<>(count[findSlot(slot)] * 4 / 3 + 1);
+        int member = slot;
+        do {
+            group.add(BlockPos.of(positions[member]));
+            member = next[member];
+        } while (member != slot);
         return group;
     }
 
+    /**
+     * Number of blocks in the group containing {@code pos}, or 0 if it is not in the graph.
+     */
+    public int getGroupSize(BlockPos pos) {
+        int slot = slots.get(pos.asLong());
+        return slot == NONE ? 0 : count[findSlot(slot)];
+    }
+
+    /**
+     * Number of connected groups.
+     */
+    public int getComponentCount() {
+        return components;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Read-only view of every block in the graph, as {@link BlockPos#asLong} keys.
+     */
+    public LongSet getPackedBlocks() {
+        return LongSets.unmodifiable(slots.keySet());
+    }
+
     public BlockPos findAny() {
-        return parent.keySet().stream().findFirst().orElse(null);
+        if (slots.isEmpty()) return null;
+        return BlockPos.of(slots.keySet().iterator().nextLong());
+    }
+
+    // ------------------------------------------------------------------------
+    // Slot forest
+    // ------------------------------------------------------------------------
+
+    // Iterative find with path halving: every other node on the path is pointed at its grandparent
+    private int findSlot(int slot) {
+        while (parent[slot] != slot) {
+            parent[slot] = parent[parent[slot]];
+            slot = parent[slot];
+        }
+        return slot;
+    }
+
+    // Union by rank; a and b must be live slots, since their member rings are spliced through them
+    private void unionSlots(int a, int b) {
+        int rootA = findSlot(a);
+        int rootB = findSlot(b);
+        if (rootA == rootB) return;
+
+        int root;
+        if (rank[rootA] < rank[rootB]) {
+            parent[rootA] = rootB;
+            root = rootB;
+        } else if (rank[rootA] > rank[rootB]) {
+            parent[rootB] = rootA;
+            root = rootA;
+        } else {
+            parent[rootB] = rootA;
+            rank[rootA]++;
+            root = rootA;
+        }
+        count[root] = count[rootA] + count[rootB];
+        components--;
+
+        // Splice the two rings into one
+        int nextA = next[a];
+        int nextB = next[b];
+        next[a] = nextB;
+        prev[nextB] = a;
+        next[b] = nextA;
+        prev[nextA] = b;
+    }
+
+    private void unlink(int slot) {
+        next[prev[slot]] = next[slot];
+        prev[next[slot]] = prev[slot];
+        next[slot] = slot;
+        prev[slot] = slot;
+    }
+
+    private int allocate(long key) {
+        if (size == parent.length) {
+            int capacity = size * 2;
+            positions = Arrays.copyOf(positions, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            rank = Arrays.copyOf(rank, capacity);
+            links = Arrays.copyOf(links, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            count = Arrays.copyOf(count, capacity);
+            searchStamp = Arrays.copyOf(searchStamp, capacity);
+            searchLabel = Arrays.copyOf(searchLabel, capacity);
+        }
+
+        int slot = size++;
+        positions[slot] = key;
+        parent[slot] = slot;
+        rank[slot] = 0;
+        links[slot] = 0;
+        next[slot] = slot;
+        prev[slot] = slot;
+        count[slot] = 1;
+        searchStamp[slot] = 0;
+        components++;
+        slots.put(key, slot);
+        return slot;
+    }
+
+    // Drops tombstones by re-adding the live blocks with their neighbor masks and re-uniting along them
+    private void compact() {
+        int live = slots.size();
+        long[] oldPositions = positions;
+        byte[] oldLinks = links;
+        int[] order = new int[live];
+        int n = 0;
+        for (int slot : slots.values()) {
+            order[n++] = slot;
+        }
+        Arrays.sort(order);
+
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, live)) << 1);
+        positions = new long[capacity];
+        parent = new int[capacity];
+        rank = new byte[capacity];
+        links = new byte[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        count = new int[capacity];
+        searchStamp = new int[capacity];
+        searchLabel = new byte[capacity];
+        stamp = 0;
+        size = 0;
+        tombstones = 0;
+        components = 0;
+        slots.clear();
+
+        for (int old : order) {
+            int slot = allocate(oldPositions[old]);
+            links[slot] = oldLinks[old];
+        }
+        for (int slot = 0; slot < size; slot++) {
+            long key = positions[slot];
+            int mask = links[slot];
+            for (Direction dir : DIRECTIONS) {
+                if ((mask & (1 << dir.get3DDataValue())) == 0) continue;
+                int neighbor = slots.get(BlockPos.offset(key, dir));
+                if (neighbor != NONE) {
+                    unionSlots(slot, neighbor);
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
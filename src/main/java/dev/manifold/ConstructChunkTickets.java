@@ -0,0 +1,123 @@
+package dev.manifold;
+
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.phys.AABB;
+import org.joml.Quaternionf;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongPredicate;
+
+/**
+ * Keeps the sim dimension chunks under each construct loaded through chunk tickets.
+ * <p>
+ * Every construct holds one ticket per chunk of its bounding box, keyed by the construct id. Tickets are only
+ * touched when the chunk range or the ticket level changes, and are released when the construct is removed.
+ * Moving constructs and constructs someone is watching keep their chunks entity ticking like forced chunks do;
+ * idle constructs nobody is watching only keep them loaded.
+ */
+public class ConstructChunkTickets {
+    public static final TicketType<UUID> CONSTRUCT = TicketType.create("manifold_construct", UUID::compareTo);
+
+    /**
+     * Ticket distance for entity ticking, same as forced chunks.
+     */
+    private static final int ACTIVE_DISTANCE = 2;
+    /**
+     * Ticket distance for loaded but not ticking.
+     */
+    private static final int IDLE_DISTANCE = 0;
+    private static final double IDLE_VELOCITY_SQR = 1.0E-6;
+    private static final Quaternionf IDENTITY = new Quaternionf();
+
+    private final ServerLevel simDimension;
+    private final Map<UUID, Tickets> tickets = new HashMap<>();
+
+    public ConstructChunkTickets(ServerLevel simDimension) {
+        this.simDimension = simDimension;
+    }
+
+    /**
+     * Releases chunks forced by older versions, which forced every chunk a construct ever covered.
+     * Only chunks accepted by {@code inConstructRegion} are unforced, so chunks forced by {@code /forceload}
+     * or other mods elsewhere in the sim dimension are left alone.
+     */
+    public void releaseLegacyForcedChunks(LongPredicate inConstructRegion) {
+        for (long chunk : simDimension.getForcedChunks().toLongArray()) {
+            if (inConstructRegion.test(chunk)) {
+                simDimension.setChunkForced(ChunkPos.getX(chunk), ChunkPos.getZ(chunk), false);
+            }
+        }
+    }
+
+    public void update(DynamicConstruct construct, boolean watched) {
+        AABB box = construct.getBoundingBox();
+        int minX = Mth.floor(box.minX) >> 4;
+        int minZ = Mth.floor(box.minZ) >> 4;
+        int maxX = Mth.ceil(box.maxX) >> 4;
+        int maxZ = Mth.ceil(box.maxZ) >> 4;
+        int distance = watched || !isIdle(construct) ? ACTIVE_DISTANCE : IDLE_DISTANCE;
+
+        Tickets current = tickets.get(construct.getId());
+        if (current != null && current.matches(minX, minZ, maxX, maxZ, distance)) return;
+
+        Tickets next = new Tickets(construct.getId(), minX, minZ, maxX, maxZ, distance);
+        ServerChunkCache chunkSource = simDimension.getChunkSource();
+
+        // Add before removing so chunks covered by both never drop out
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (current == null || current.distance != distance || !current.contains(x, z)) {
+                    chunkSource.addRegionTicket(CONSTRUCT, new ChunkPos(x, z), distance, construct.getId());
+                }
+            }
+        }
+        if (current != null) {
+            current.release(chunkSource, next);
+        }
+
+        tickets.put(construct.getId(), next);
+    }
+
+    public void release(UUID constructId) {
+        Tickets current = tickets.remove(constructId);
+        if (current != null) {
+            current.release(simDimension.getChunkSource(), null);
+        }
+    }
+
+    private static boolean isIdle(DynamicConstruct construct) {
+        Quaternionf spin = construct.getAngularVelocity();
+        boolean spinning = !spin.equals(IDENTITY) && !spin.equals(new Quaternionf(0, 0, 0, 0));
+        return !spinning && construct.getVelocity().lengthSqr() < IDLE_VELOCITY_SQR;
+    }
+
+    private record Tickets(UUID owner, int minX, int minZ, int maxX, int maxZ, int distance) {
+        private boolean matches(int minX, int minZ, int maxX, int maxZ, int distance) {
+            return this.minX == minX && this.minZ == minZ && this.maxX == maxX && this.maxZ == maxZ
+                    && this.distance == distance;
+        }
+
+        private boolean contains(int x, int z) {
+            return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+        }
+
+        /**
+         * Removes every ticket that the replacement does not hold as well.
+         */
+        private void release(ServerChunkCache chunkSource, Tickets replacement) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    if (replacement == null || replacement.distance != distance || !replacement.contains(x, z)) {
+                        chunkSource.removeRegionTicket(CONSTRUCT, new ChunkPos(x, z), distance, owner);
+                    }
+                }
+            }
+        }
+    }
+}
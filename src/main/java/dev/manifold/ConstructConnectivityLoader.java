@@ -0,0 +1,209 @@
+package dev.manifold;
+
+import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Rebuilds the connectivity graph of constructs loaded from a save, since the graph itself is not persisted.
+ * <p>
+ * The sim chunks under a construct are requested asynchronously. Once they are in, the server thread only copies
+ * the paletted containers of the non-empty sections, and a worker scans those copies into a fresh
+ * {@link BlockUnionGraph}. Edits made while a rebuild is pending are logged and replayed onto the new graph
+ * before it is installed, so the server thread never waits on chunk loading or on a full scan. Should the
+ * asynchronous rebuild fail, the graph is scanned synchronously instead so the construct is never left without one.
+ */
+public class ConstructConnectivityLoader {
+    private final ServerLevel simDimension;
+    // Server thread only
+    private final Map<UUID, Pending> pending = new HashMap<>();
+
+    private static final class Pending {
+        final LongArrayList editPositions = new LongArrayList();
+        final BooleanArrayList editPlaced = new BooleanArrayList();
+        boolean chunksLoaded;
+    }
+
+    private record Section(int x, int y, int z, PalettedContainer<BlockState> states) {
+    }
+
+    public ConstructConnectivityLoader(ServerLevel simDimension) {
+        this.simDimension = simDimension;
+    }
+
+    /**
+     * Starts rebuilding the construct's graph. {@code onChunksLoaded} runs on the server thread as soon as
+     * every sim chunk under the construct is loaded. {@code onSplit} receives the islands cut off by removals
+     * that were replayed onto the new graph, once it has been installed.
+     */
+    public void schedule(DynamicConstruct construct, Runnable onChunksLoaded, Consumer<List<Set<BlockPos>>> onSplit) {
+        UUID id = construct.getId();
+        Pending entry = new Pending();
+        pending.put(id, entry);
+
+        BlockPos min = construct.getSimOrigin().offset(construct.getNegativeBounds());
+        BlockPos max = construct.getSimOrigin().offset(construct.getPositiveBounds());
+        ServerChunkCache chunkSource = simDimension.getChunkSource();
+        List<CompletableFuture<?>> chunks = new ArrayList<>();
+        for (int cx = SectionPos.blockToSectionCoord(min.getX()); cx <= SectionPos.blockToSectionCoord(max.getX()); cx++) {
+            for (int cz = SectionPos.blockToSectionCoord(min.getZ()); cz <= SectionPos.blockToSectionCoord(max.getZ()); cz++) {
+                chunks.add(chunkSource.getChunkFuture(cx, cz, ChunkStatus.FULL, true));
+            }
+        }
+
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .thenApplyAsync(loaded -> {
+                    if (pending.get(id) != entry) return null;
+                    onChunksLoaded.run();
+                    entry.chunksLoaded = true;
+                    // The copies below already contain every edit made so far
+                    entry.editPositions.clear();
+                    entry.editPlaced.clear();
+                    return snapshot(construct, min, max);
+                }, simDimension.getServer())
+                .thenApplyAsync(sections -> sections != null ? scan(construct, min, max, sections) : null, Util.backgroundExecutor())
+                .whenCompleteAsync((graph, error) -> {
+                    if (pending.get(id) != entry) return;
+                    pending.remove(id);
+                    if (error != null) {
+                        Manifold.LOGGER.error("Failed to rebuild connectivity for construct {}, scanning synchronously", id, error);
+                        if (!entry.chunksLoaded) onChunksLoaded.run();
+                        // Read on this thread, the sections already contain every logged edit
+                        construct.setConnectivityGraph(scan(construct, min, max, snapshot(construct, min, max)));
+                        return;
+                    }
+
+                    List<Set<BlockPos>> islands = replay(graph, entry);
+                    construct.setConnectivityGraph(graph);
+                    if (!islands.isEmpty()) onSplit.accept(islands);
+                }, simDimension.getServer());
+    }
+
+    /**
+     * Replays edits made while the worker was scanning and returns the islands the removals cut off.
+     */
+    private static List<Set<BlockPos>> replay(BlockUnionGraph graph, Pending entry) {
+        List<Set<BlockPos>> islands = new ArrayList<>();
+        for (int i = 0; i < entry.editPositions.size(); i++) {
+            BlockPos rel = BlockPos.of(entry.editPositions.getLong(i));
+            if (entry.editPlaced.getBoolean(i)) {
+                graph.addBlock(rel);
+            } else {
+                islands.addAll(graph.breakBlock(rel));
+            }
+        }
+        if (islands.isEmpty()) return islands;
+
+        // Later edits may have emptied, shrunk or merged an island, so report each one as it is now
+        List<Set<BlockPos>> current = new ArrayList<>(islands.size());
+        LongOpenHashSet roots = new LongOpenHashSet();
+        for (Set<BlockPos> island : islands) {
+            for (BlockPos member : island) {
+                BlockPos root = graph.find(member);
+                if (root == null) continue;
+                if (roots.add(root.asLong())) current.add(graph.getGroup(root));
+                break;
+            }
+        }
+        return current;
+    }
+
+    public boolean isPending(DynamicConstruct construct) {
+        return pending.containsKey(construct.getId());
+    }
+
+    public void forget(UUID id) {
+        pending.remove(id);
+    }
+
+    /**
+     * Adds a placed block to the construct's graph, or logs it while the graph is still being rebuilt.
+     */
+    public void addBlock(DynamicConstruct construct, BlockPos rel) {
+        Pending entry = pending.get(construct.getId());
+        if (entry != null) {
+            entry.editPositions.add(rel.asLong());
+            entry.editPlaced.add(true);
+            return;
+        }
+        construct.getConnectivityGraph().addBlock(rel);
+    }
+
+    /**
+     * Removes a broken block and returns the islands it cut off; while the graph is still being rebuilt the
+     * removal is only logged, and its islands go to the {@code onSplit} callback once the graph is installed.
+     */
+    public List<Set<BlockPos>> breakBlock(DynamicConstruct construct, BlockPos rel) {
+        Pending entry = pending.get(construct.getId());
+        if (entry != null) {
+            entry.editPositions.add(rel.asLong());
+            entry.editPlaced.add(false);
+            return Collections.emptyList();
+        }
+        return construct.getConnectivityGraph().breakBlock(rel);
+    }
+
+    // Server thread: copy the states of every non-empty section overlapping the bounds
+    private List<Section> snapshot(DynamicConstruct construct, BlockPos min, BlockPos max) {
+        List<Section> sections = new ArrayList<>();
+        for (int sx = SectionPos.blockToSectionCoord(min.getX()); sx <= SectionPos.blockToSectionCoord(max.getX()); sx++) {
+            for (int sz = SectionPos.blockToSectionCoord(min.getZ()); sz <= SectionPos.blockToSectionCoord(max.getZ()); sz++) {
+                ChunkAccess chunk = simDimension.getChunk(sx, sz);
+                for (int sy = SectionPos.blockToSectionCoord(min.getY()); sy <= SectionPos.blockToSectionCoord(max.getY()); sy++) {
+                    int index = chunk.getSectionIndexFromSectionY(sy);
+                    if (index < 0 || index >= chunk.getSectionsCount()) continue;
+
+                    LevelChunkSection section = chunk.getSection(index);
+                    if (section.hasOnlyAir()) continue;
+                    sections.add(new Section(sx, sy, sz, section.getStates().copy()));
+                }
+            }
+        }
+        return sections;
+    }
+
+    // Worker: walk the copied containers section by section, clipped to the construct bounds
+    private static BlockUnionGraph scan(DynamicConstruct construct, BlockPos min, BlockPos max, List<Section> sections) {
+        BlockPos origin = construct.getSimOrigin();
+        BlockUnionGraph graph = new BlockUnionGraph();
+
+        for (Section section : sections) {
+            PalettedContainer<BlockState> states = section.states();
+            if (!states.maybeHas(state -> !state.isAir())) continue;
+
+            int baseX = SectionPos.sectionToBlockCoord(section.x());
+            int baseY = SectionPos.sectionToBlockCoord(section.y());
+            int baseZ = SectionPos.sectionToBlockCoord(section.z());
+            int fromX = Math.max(0, min.getX() - baseX), toX = Math.min(15, max.getX() - baseX);
+            int fromY = Math.max(0, min.getY() - baseY), toY = Math.min(15, max.getY() - baseY);
+            int fromZ = Math.max(0, min.getZ() - baseZ), toZ = Math.min(15, max.getZ() - baseZ);
+
+            for (int y = fromY; y <= toY; y++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    for (int x = fromX; x <= toX; x++) {
+                        if (states.get(x, y, z).isAir()) continue;
+                        graph.addBlock(new BlockPos(
+                                baseX + x - origin.getX(),
+                                baseY + y - origin.getY(),
+                                baseZ + z - origin.getZ()));
+                    }
+                }
+            }
+        }
+        return graph;
+    }
+}
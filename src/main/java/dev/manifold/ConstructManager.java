@@ -1,39 +1,31 @@
 package dev.manifold;
 
-import dev.manifold.access_holders.LayerLightStorageBridge;
 import dev.manifold.mass.MassManager;
-import dev.manifold.mixin.accessor.DataLayerStorageMapAccessor;
-import dev.manifold.mixin.accessor.LightEngineAccessor;
 import dev.manifold.network.packets.BreakInConstructC2SPacket;
-import dev.manifold.network.packets.ConstructSectionDataS2CPacket;
-import dev.manifold.network.packets.RemoveConstructS2CPacket;
+import dev.manifold.physics.collision.ConstructBroadphase;
+import dev.manifold.physics.collision.ConstructCollisionEngine;
 import dev.manifold.physics.collision.ConstructCollisionManager;
-import io.netty.buffer.Unpooled;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import dev.manifold.sync.ConstructSyncManager;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.SectionPos;
-import net.minecraft.nbt.CompoundTag;
-import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.util.Mth;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.LightLayer;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.ShulkerBoxBlock;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.level.chunk.DataLayer;
-import net.minecraft.world.level.chunk.LevelChunk;
-import net.minecraft.world.level.chunk.LevelChunkSection;
-import net.minecraft.world.level.lighting.*;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Quaternionf;
 import org.joml.Vector2i;
 import org.joml.Vector3f;
@@ -44,38 +36,71 @@ public class ConstructManager {
     private static final BlockPos REGION_CENTER = new BlockPos(256, 256, 256);
     private static final int REGION_SIZE = 512;
     public static ConstructManager INSTANCE;
-    private final ServerLevel simDimension;
+    private final SimLevel simDimension;
     private final Map<UUID, DynamicConstruct> constructs = new HashMap<>();
-    private final Map<Vector2i, UUID> regionOwners = new HashMap<>();
-
-    public ConstructManager(ServerLevel simDimension) {
+    private final Long2IntOpenHashMap regionOwners = new Long2IntOpenHashMap();
+    private final RegionAllocator regions = new RegionAllocator();
+    private final IntArrayList freeHandles = new IntArrayList();
+    private DynamicConstruct[] handles = new DynamicConstruct[64];
+    private int handleCount;
+    private final ConstructSyncManager syncManager;
+    private final ConstructChunkTickets chunkTickets;
+    private final ConstructBroadphase broadphase = new ConstructBroadphase();
+    private final ConstructConnectivityLoader connectivity;
+    private boolean legacyChunksReleased;
+
+    public ConstructManager(SimLevel simDimension) {
         this.simDimension = simDimension;
+        this.syncManager = new ConstructSyncManager(simDimension, simDimension.getSectionVersions());
+        this.chunkTickets = new ConstructChunkTickets(simDimension);
+        this.connectivity = new ConstructConnectivityLoader(simDimension);
+        this.regionOwners.defaultReturnValue(-1);
     }
 
     public void loadFromSave(ConstructSaveData saveData) {
         for (DynamicConstruct construct : saveData.getConstructs().values()) {
             constructs.put(construct.getId(), construct);
-            regionOwners.put(getRegionIndex(construct.getSimOrigin()), construct.getId());
+            Vector2i region = getRegionIndex(construct.getSimOrigin());
+            regionOwners.put(RegionAllocator.pack(region.x, region.y), assignHandle(construct));
+            regions.claim(region.x, region.y);
+            broadphase.update(construct);
+
+            // Collision and connectivity are rebuilt once its sim chunks have loaded, without blocking startup
+            connectivity.schedule(construct, () -> ConstructCollisionManager.rebuild(construct, simDimension),
+                    islands -> splitIslands(construct.getId(), islands));
+        }
 
-            ConstructCollisionManager.rebuild(construct, simDimension);
+        // One-time migration from forced chunks to tickets, limited to the regions constructs actually own
+        legacyChunksReleased = saveData.isLegacyChunksReleased();
+        if (!legacyChunksReleased) {
+            chunkTickets.releaseLegacyForcedChunks(chunk -> {
+                Vector2i region = getRegionIndex(new BlockPos(ChunkPos.getX(chunk) << 4, 0, ChunkPos.getZ(chunk) << 4));
+                return regions.isTaken(region.x, region.y);
+            });
+            legacyChunksReleased = true;
         }
     }
 
     public ConstructSaveData toSaveData() {
-        return new ConstructSaveData(constructs);
+        return new ConstructSaveData(constructs, legacyChunksReleased);
     }
 
     public UUID createConstruct(BlockState state, ServerLevel level) {
-        Vector2i region = findFreeRegion();
+        long regionKey = regions.allocate();
+        Vector2i region = new Vector2i(RegionAllocator.unpackX(regionKey), RegionAllocator.unpackZ(regionKey));
         BlockPos center = regionCenterToWorld(region);
         UUID uuid = UUID.randomUUID();
 
         DynamicConstruct construct = new DynamicConstruct(uuid, level.dimension(), center);
         construct.setMass((int) MassManager.getMassOrDefault(state.getBlock().asItem()));
         simDimension.setBlock(center, state, 3);
+        if (!state.isAir()) {
+            construct.getConnectivityGraph().addBlock(BlockPos.ZERO);
+        }
 
         constructs.put(uuid, construct);
-        regionOwners.put(region, uuid);
+        regionOwners.put(regionKey, assignHandle(construct));
+        broadphase.update(construct);
 
         ConstructCollisionManager.rebuild(construct, simDimension);
 
@@ -86,17 +111,18 @@ public class ConstructManager {
         DynamicConstruct construct = constructs.remove(id);
         if (construct != null) {
             clearConstructArea(construct);
-            regionOwners.remove(getRegionIndex(construct.getSimOrigin()));
+            Vector2i region = getRegionIndex(construct.getSimOrigin());
+            regionOwners.remove(RegionAllocator.pack(region.x, region.y));
+            regions.free(region.x, region.y);
+            broadphase.remove(construct);
+            releaseHandle(construct);
+            connectivity.forget(id);
 
             // NEW: remove from collision system
             ConstructCollisionManager.remove(id);
-
-            // notify only players in the construct's render dimension
-            for (ServerPlayer player : simDimension.getServer().getPlayerList().getPlayers()) {
-                if (player.serverLevel().dimension().equals(construct.getWorldKey())) {
-                    ServerPlayNetworking.send(player, new RemoveConstructS2CPacket(id));
-                }
-            }
+            // notifies every player tracking it
+            syncManager.forgetConstruct(construct);
+            chunkTickets.release(id);
         }
     }
 
@@ -129,16 +155,6 @@ public class ConstructManager {
         }
     }
 
-    private Vector2i findFreeRegion() {
-        for (int x = 0; x < 2048; x++) {
-            for (int z = 0; z < 2048; z++) {
-                Vector2i key = new Vector2i(x, z);
-                if (!regionOwners.containsKey(key)) return key;
-            }
-        }
-        throw new IllegalStateException("No free region available for construct.");
-    }
-
     private BlockPos regionCenterToWorld(Vector2i region) {
         return new BlockPos(
                 region.x * REGION_SIZE + REGION_CENTER.getX(),
@@ -188,9 +204,9 @@ public class ConstructManager {
         construct.setMass(oldMass + blockMass);
 
         // -- Connectivity graph --
-        construct.getConnectivityGraph().addBlock(rel);
+        connectivity.addBlock(construct, rel);
 
-        ConstructCollisionManager.rebuild(construct, simDimension);
+        ConstructCollisionManager.setBlock(construct, rel, simDimension.getBlockState(absolute));
     }
 
     public void breakBlockInConstruct(BreakInConstructC2SPacket packet, ServerPlayNetworking.Context context) {
@@ -207,6 +223,7 @@ public class ConstructManager {
 
         BlockPos rel = packet.blockHitPos().subtract(construct.getSimOrigin());
         this.expandBounds(packet.constructId(), rel);
+        ConstructCollisionManager.setBlock(construct, rel, simDimension.getBlockState(packet.blockHitPos()));
 
         // Only update COM if the block was actually removed
         if (!oldState.isAir()) {
@@ -236,10 +253,11 @@ public class ConstructManager {
             construct.setCenterOfMass(newCOM);
             construct.setMass(oldMass - blockMass);
 
-            // Connectivity graph
-            construct.getConnectivityGraph().removeBlock(rel);
-
-            ConstructCollisionManager.rebuild(construct, simDimension);
+            // Connectivity graph; whatever the break cut off becomes its own construct
+            List<Set<BlockPos>> islands = connectivity.breakBlock(construct, rel);
+            if (!islands.isEmpty()) {
+                splitIslands(construct.getId(), islands);
+            }
         }
     }
 
@@ -278,8 +296,6 @@ public class ConstructManager {
 
         construct.setNegativeBounds(new BlockPos(newNegX, newNegY, newNegZ));
         construct.setPositiveBounds(new BlockPos(newPosX, newPosY, newPosZ));
-
-        ConstructCollisionManager.rebuild(construct, simDimension);
     }
 
     public void tick(MinecraftServer server) {
@@ -287,113 +303,46 @@ public class ConstructManager {
             // physics update
             construct.physicsTick();
 
-            //fixme maybe do update collision system here too?
-
-            // compute sim chunks to keep loaded (in sim dimension)
-            AABB box = construct.getBoundingBox();
-            ChunkPos minChunk = new ChunkPos(Mth.floor(box.minX) >> 4, Mth.floor(box.minZ) >> 4);
-            ChunkPos maxChunk = new ChunkPos(Mth.ceil(box.maxX)  >> 4, Mth.ceil(box.maxZ)  >> 4);
-
-            for (int x = minChunk.x; x <= maxChunk.x; x++) {
-                for (int z = minChunk.z; z <= maxChunk.z; z++) {
-                    simDimension.setChunkForced(x, z, true);
-                }
-            }
-
-            // send section data ONLY to players in the construct's render dimension
-            for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-                if (!player.connection.isAcceptingMessages()) continue;
-
-                // *** Dimension gate ***
-                if (!player.serverLevel().dimension().equals(construct.getWorldKey())) {
-                    continue;
-                }
-
-                // optional distance cull in render space (world coords)
-                Vec3 p = player.position();
-                if (construct.getRenderBoundingBox().intersects(
-                        p.x - 128, p.y - 128, p.z - 128,
-                        p.x + 128, p.y + 128, p.z + 128)) {
+            // refit its broadphase box, only touches the tree if it left its fattened bounds
+            broadphase.update(construct);
 
-                    sendChunkDataToPlayer(player, construct, minChunk, maxChunk);
-                }
-            }
+            // keep its sim chunks loaded, only touches tickets if the bounds or activity changed
+            chunkTickets.update(construct, syncManager.isTracked(construct.getId()));
         }
-    }
-
-    private void sendChunkDataToPlayer(ServerPlayer player, DynamicConstruct construct, ChunkPos minChunk, ChunkPos maxChunk) {
-        List<CompoundTag> sectionNBTs = new ArrayList<>();
-
-        for (int cx = minChunk.x; cx <= maxChunk.x; cx++) {
-            for (int cz = minChunk.z; cz <= maxChunk.z; cz++) {
-                LevelChunk chunk = simDimension.getChunk(cx, cz);
 
-                CompoundTag chunkTag = new CompoundTag();
-                chunkTag.putInt("xPos", cx);
-                chunkTag.putInt("zPos", cz);
+        // with candidate marking on, only entities near a construct run construct collision next tick
+        ConstructCollisionEngine.markCandidates(server, constructs.values());
 
-                CompoundTag sectionsTag = new CompoundTag();
-
-                ChunkPos pos = chunk.getPos();
-                LevelLightEngine lightEngine = simDimension.getLightEngine();
-
-                for (int y = 0; y < chunk.getSections().length; y++) {
-                    LevelChunkSection section = chunk.getSections()[y];
-                    int sectionY = y + chunk.getMinSection();
-                    SectionPos sectionPos = SectionPos.of(pos, sectionY);
-                    long sectionKey = sectionPos.asLong();
-
-                    // === Save block data ===
-                    if (section != null && !section.hasOnlyAir()) {
-                        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
-                        section.write(buf);
-                        sectionsTag.putByteArray("Section_" + sectionY, buf.array()); // Store as Section_12, etc.
-                    }
-
-                    // === Save light data ===
-                    for (LightLayer layer : LightLayer.values()) {
-                        LayerLightEventListener listener = lightEngine.getLayerListener(layer);
-                        if (!(listener instanceof LightEngine<?, ?> engine)) continue;
+        // send changed sections and the current pose to tracking players
+        syncManager.tick(server, constructs.values());
+    }
 
-                        LayerLightSectionStorage<?> storage = ((LightEngineAccessor) engine).manifold$getStorage();
-                        DataLayerStorageMap<?> dataMap = ((LayerLightStorageBridge) storage).manifold$getUpdatingData();
-                        Long2ObjectMap<DataLayer> map = ((DataLayerStorageMapAccessor) dataMap).manifold$getMap();
+    public ConstructSyncManager getSyncManager() {
+        return syncManager;
+    }
 
-                        DataLayer data = map.get(sectionKey);
-                        if (data != null) {
-                            sectionsTag.putByteArray(layer.name() + "Light_" + sectionY, data.getData());
-                        }
-                    }
-                }
+    public List<DynamicConstruct> getNearbyConstructs(ResourceKey<Level> worldKey, Vec3 center, int chunkRadius) {
+        int r = chunkRadius * 16;
+        IntArrayList handles = new IntArrayList();
+        broadphase.query(worldKey, center.x - r, center.y - r, center.z - r, center.x + r, center.y + r, center.z + r, handles);
 
-                chunkTag.put("Sections", sectionsTag);
-                sectionNBTs.add(chunkTag);
-            }
+        List<DynamicConstruct> nearby = new ArrayList<>(handles.size());
+        for (int i = 0; i < handles.size(); i++) {
+            DynamicConstruct construct = getConstructByHandle(handles.getInt(i));
+            if (construct != null) nearby.add(construct);
         }
-
-        ConstructSectionDataS2CPacket packet = new ConstructSectionDataS2CPacket(
-                construct.getId(),
-                construct.getSimOrigin(),
-                minChunk.x, minChunk.z,
-                maxChunk.x - minChunk.x + 1,
-                maxChunk.z - minChunk.z + 1,
-                sectionNBTs,
-                construct.getWorldKey()
-        );
-
-        ServerPlayNetworking.send(player, packet);
+        return nearby;
     }
 
-    public List<DynamicConstruct> getNearbyConstructs(ResourceKey<Level> worldKey, Vec3 center, int chunkRadius) {
-        int r = chunkRadius * 16;
-        return constructs.values().stream()
-                .filter(c -> c.getWorldKey().equals(worldKey))
-                .filter(c -> {
-                    AABB box = c.getRenderBoundingBox();
-                    return box.intersects(center.x - r, center.y - r, center.z - r,
-                            center.x + r, center.y + r, center.z + r);
-                })
-                .toList();
+    /**
+     * Adds the handle of every construct in {@code worldKey} whose broadphase box overlaps the given box to
+     * {@code out}, without allocating. Boxes are fattened, so callers still test the exact bounds.
+     */
+    public void getNearbyConstructHandles(ResourceKey<Level> worldKey,
+                                          double minX, double minY, double minZ,
+                                          double maxX, double maxY, double maxZ,
+                                          IntArrayList out) {
+        broadphase.query(worldKey, minX, minY, minZ, maxX, maxY, maxZ, out);
     }
 
     public static ServerLevel getSimDimension() {
@@ -492,16 +441,59 @@ public class ConstructManager {
                 construct.setPosition(construct.getPosition().add(new Vec3(localShift)));
                 construct.setCenterOfMass(newCOM);
                 construct.setMass(newConstructMass);
-
-                ConstructCollisionManager.rebuild(construct, simDimension);
             }
         }
     }
 
     public Optional<UUID> getConstructAt(Vec3 position) {
-        int regionX = Mth.floor((position.x + REGION_SIZE / 2.0 - REGION_CENTER.getX()) / REGION_SIZE);
-        int regionZ = Mth.floor((position.z + REGION_SIZE / 2.0 - REGION_CENTER.getZ()) / REGION_SIZE);
-        return Optional.ofNullable(regionOwners.get(new Vector2i(regionX, regionZ)));
+        DynamicConstruct construct = getConstructByHandle(getConstructHandleAt(position.x, position.z));
+        return construct != null ? Optional.of(construct.getId()) : Optional.empty();
+    }
+
+    /**
+     * Handle of the construct owning the sim region at the given position, or -1.
+     * Does not allocate, meant for per-block and per-vertex lookups.
+     */
+    public int getConstructHandleAt(double x, double z) {
+        int regionX = Mth.floor((x + REGION_SIZE / 2.0 - REGION_CENTER.getX()) / REGION_SIZE);
+        int regionZ = Mth.floor((z + REGION_SIZE / 2.0 - REGION_CENTER.getZ()) / REGION_SIZE);
+        return regionOwners.get(RegionAllocator.pack(regionX, regionZ));
+    }
+
+    /**
+     * Handle of the construct owning the sim region containing the given block, or -1.
+     */
+    public int getConstructHandleAt(int blockX, int blockZ) {
+        int regionX = Math.floorDiv(blockX + REGION_SIZE / 2 - REGION_CENTER.getX(), REGION_SIZE);
+        int regionZ = Math.floorDiv(blockZ + REGION_SIZE / 2 - REGION_CENTER.getZ(), REGION_SIZE);
+        return regionOwners.get(RegionAllocator.pack(regionX, regionZ));
+    }
+
+    public @Nullable DynamicConstruct getConstructByHandle(int handle) {
+        return handle >= 0 && handle < handleCount ? handles[handle] : null;
+    }
+
+    private int assignHandle(DynamicConstruct construct) {
+        int handle;
+        if (!freeHandles.isEmpty()) {
+            handle = freeHandles.popInt();
+        } else {
+            if (handleCount == handles.length) {
+                handles = Arrays.copyOf(handles, handles.length * 2);
+            }
+            handle = handleCount++;
+        }
+        handles[handle] = construct;
+        construct.setHandle(handle);
+        return handle;
+    }
+
+    private void releaseHandle(DynamicConstruct construct) {
+        int handle = construct.getHandle();
+        if (handle < 0) return;
+        handles[handle] = null;
+        freeHandles.add(handle);
+        construct.setHandle(-1);
     }
 
     public Optional<ServerLevel> getRenderLevel(UUID uuid) {
@@ -517,7 +509,10 @@ public class ConstructManager {
     public Vec3 getRenderPosFromSim(UUID uuid, Vec3 simPosition) {
         DynamicConstruct construct = constructs.get(uuid);
         if (construct == null) throw new IllegalArgumentException("No construct with id " + uuid);
+        return getRenderPosFromSim(construct, simPosition);
+    }
 
+    public Vec3 getRenderPosFromSim(DynamicConstruct construct, Vec3 simPosition) {
         BlockPos simOrigin = construct.getSimOrigin();
         Vec3 com = construct.getCenterOfMass();
         Quaternionf rotation = construct.getRotation();
@@ -537,7 +532,10 @@ public class ConstructManager {
     public BlockPos getSimPosFromRender(UUID uuid, Vec3 renderPos) {
         DynamicConstruct construct = constructs.get(uuid);
         if (construct == null) throw new IllegalArgumentException("No construct with id " + uuid);
+        return getSimPosFromRender(construct, renderPos);
+    }
 
+    public BlockPos getSimPosFromRender(DynamicConstruct construct, Vec3 renderPos) {
         BlockPos simOrigin = construct.getSimOrigin();
         Vec3 com = construct.getCenterOfMass();
         Quaternionf rotation = new Quaternionf(construct.getRotation()).invert(); // inverse rotation
@@ -558,11 +556,12 @@ public class ConstructManager {
 
     public boolean trySeparateBlocks(UUID constructId, List<SeparatorRecord> separators) {
         DynamicConstruct construct = constructs.get(constructId);
-        if (construct == null) return false;
+        if (construct == null || connectivity.isPending(construct)) return false;
 
         BlockUnionGraph graph = construct.getConnectivityGraph();
 
         // Temporarily remove edges between separator blocks
+        int componentsBefore = graph.getComponentCount();
         List<BlockPos> roots = new ArrayList<>();
         for (SeparatorRecord r : separators) {
             graph.disconnect(r.a(), r.b());
@@ -572,16 +571,17 @@ public class ConstructManager {
 
         // Check if any roots now belong to different connected components
         BlockPos reference = roots.get(0);
-        for (int i = 1; i < roots.size(); i++) {
+        for (int i = 1; i < roots.size() && graph.getComponentCount() > componentsBefore; i++) {
             if (!graph.connected(reference, roots.get(i))) {
                 // Found a separation
                 Set<BlockPos> component = graph.getGroup(roots.get(i));
                 UUID newId = ConstructManager.INSTANCE.splitConstruct(constructId, component);
-                return newId != null;
+                if (newId != null) return true;
+                break;
             }
         }
 
-        // If not separated, reconnect edges (optional)
+        // If not separated, restore the separator links; the graph rebuilds from them later
         for (SeparatorRecord r : separators) {
             graph.union(r.a(), r.b());
         }
@@ -593,65 +593,116 @@ public class ConstructManager {
         DynamicConstruct original = constructs.get(originalId);
         if (original == null) return null;
 
-        UUID newId = createConstruct(Blocks.AIR.defaultBlockState(), simDimension); // temp block
+        UUID newId = extractIsland(original, extractedRelBlocks);
+        if (newId != null) {
+            updateConstructBounds(original);
+        }
+        return newId;
+    }
 
-        DynamicConstruct newConstruct = constructs.get(newId);
+    /**
+     * Splits every island off the construct, then shrinks what is left of it once instead of after each island.
+     */
+    public void splitIslands(UUID originalId, List<Set<BlockPos>> islands) {
+        DynamicConstruct original = constructs.get(originalId);
+        if (original == null) return;
+
+        boolean split = false;
+        for (Set<BlockPos> island : islands) {
+            split |= extractIsland(original, island) != null;
+        }
+        if (split) {
+            updateConstructBounds(original);
+        }
+    }
+
+    /**
+     * Moves the island into a new construct. The original's bounds and collision are left for the caller to update.
+     */
+    private @Nullable UUID extractIsland(DynamicConstruct original, Set<BlockPos> extractedRelBlocks) {
         BlockPos originalOrigin = original.getSimOrigin();
-        BlockPos newOrigin = newConstruct.getSimOrigin();
 
-        // Copy and move blocks
+        // Tally what would move before touching anything, so a split that can't go ahead leaves no trace
         int totalMass = 0;
         Vec3 weightedCOM = Vec3.ZERO;
+        List<BlockPos> movedRel = new ArrayList<>(extractedRelBlocks.size());
 
         for (BlockPos rel : extractedRelBlocks) {
-            BlockPos abs = originalOrigin.offset(rel);
-            BlockState state = simDimension.getBlockState(abs);
+            BlockState state = simDimension.getBlockState(originalOrigin.offset(rel));
             if (state.isAir()) continue;
 
-            BlockPos newRel = rel; // can offset if origin shifting is needed
-            BlockPos newAbs = newOrigin.offset(newRel);
+            movedRel.add(rel);
+            int mass = (int) MassManager.getMassOrDefault(state.getBlock().asItem());
+            totalMass += mass;
+            weightedCOM = weightedCOM.add(new Vec3(rel.getX() + 0.5, rel.getY() + 0.5, rel.getZ() + 0.5).scale(mass));
+        }
 
-            simDimension.setBlock(newAbs, state, 3);
-            simDimension.setBlock(abs, Blocks.AIR.defaultBlockState(), 3);
+        // A massless piece can't be a construct, and neither can what's left if it would have no mass
+        int remainingMass = original.getMass() - totalMass;
+        if (totalMass <= 0 || remainingMass <= 0) return null;
 
-            newConstruct.getConnectivityGraph().addBlock(newRel);
+        UUID newId = createConstruct(Blocks.AIR.defaultBlockState(), simDimension); // temp block
 
-            int mass = (int) MassManager.getMassOrDefault(state.getBlock().asItem());
-            totalMass += mass;
-            weightedCOM = weightedCOM.add(new Vec3(newRel.getX() + 0.5, newRel.getY() + 0.5, newRel.getZ() + 0.5).scale(mass));
+        DynamicConstruct newConstruct = constructs.get(newId);
+        BlockPos newOrigin = newConstruct.getSimOrigin();
+
+        List<BlockPos> moved = new ArrayList<>(movedRel.size());
+        for (BlockPos rel : movedRel) {
+            BlockPos newRel = rel; // can offset if origin shifting is needed
+            moved.add(originalOrigin.offset(rel));
+
+            original.getConnectivityGraph().removeBlock(rel);
+            newConstruct.getConnectivityGraph().addBlock(newRel);
         }
 
-        if (totalMass == 0) return null;
+        // Region origins are a whole number of sections apart, so this is a straight section-to-section copy
+        simDimension.moveBlocks(moved, newOrigin.subtract(originalOrigin));
+
+        // Both halves keep their blocks where they were in the world: each pivot moves to its own COM
+        Vec3 originalCOM = original.getCenterOfMass();
+        Quaternionf rotation = new Quaternionf(original.getRotation());
 
         Vec3 newCOM = weightedCOM.scale(1.0 / totalMass);
         newConstruct.setMass(totalMass);
         newConstruct.setCenterOfMass(newCOM);
-        newConstruct.setPosition(original.getPosition()); // inherit world pos
+        newConstruct.setRotation(rotation);
+        newConstruct.setVelocity(original.getVelocity());
+        newConstruct.setPosition(original.getPosition().add(rotateLocal(newCOM.subtract(originalCOM), rotation)));
+
+        Vec3 remainingCOM = originalCOM.scale(original.getMass()).subtract(weightedCOM).scale(1.0 / remainingMass);
+        original.setPosition(original.getPosition().add(rotateLocal(remainingCOM.subtract(originalCOM), rotation)));
+        original.setCenterOfMass(remainingCOM);
+        original.setMass(remainingMass);
 
-        // Shrink bounds of both constructs
-        updateConstructBounds(original);
+        // The new construct is shrunk here, the original by the caller once it is done splitting
         updateConstructBounds(newConstruct);
 
         return newId;
     }
 
+    private static Vec3 rotateLocal(Vec3 local, Quaternionf rotation) {
+        Vector3f rotated = new Vector3f((float) local.x, (float) local.y, (float) local.z).rotate(rotation);
+        return new Vec3(rotated);
+    }
+
     private void updateConstructBounds(DynamicConstruct construct) {
-        BlockUnionGraph graph = construct.getConnectivityGraph();
-        Set<BlockPos> allBlocks = graph.getGroup(graph.findAny());
+        LongSet allBlocks = construct.getConnectivityGraph().getPackedBlocks();
 
         if (allBlocks.isEmpty()) return;
 
         int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
         int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
 
-        for (BlockPos pos : allBlocks) {
-            minX = Math.min(minX, pos.getX());
-            minY = Math.min(minY, pos.getY());
-            minZ = Math.min(minZ, pos.getZ());
+        for (LongIterator it = allBlocks.iterator(); it.hasNext(); ) {
+            long pos = it.nextLong();
+            int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
 
-            maxX = Math.max(maxX, pos.getX());
-            maxY = Math.max(maxY, pos.getY());
-            maxZ = Math.max(maxZ, pos.getZ());
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
         }
 
         construct.setNegativeBounds(new BlockPos(minX - 1, minY - 1, minZ - 1));
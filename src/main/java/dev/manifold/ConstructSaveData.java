@@ -18,7 +18,9 @@ public class ConstructSaveData extends SavedData {
                     Codec.unboundedMap(
                             Codec.STRING.xmap(UUID::fromString, UUID::toString),
                             DynamicConstruct.CODEC
-                    ).fieldOf("constructs").forGetter(data -> data.constructs)
+                    ).fieldOf("constructs").forGetter(data -> data.constructs),
+                    Codec.BOOL.optionalFieldOf("legacy_forced_chunks_released", false)
+                            .forGetter(ConstructSaveData::isLegacyChunksReleased)
             ).apply(instance, ConstructSaveData::new)
     );
     public static final SavedData.Factory<ConstructSaveData> FACTORY = new SavedData.Factory<>(
@@ -27,12 +29,15 @@ public class ConstructSaveData extends SavedData {
             null
     );
     private final Map<UUID, DynamicConstruct> constructs = new HashMap<>();
+    // Whether chunks forced by versions before construct chunk tickets have been unforced
+    private boolean legacyChunksReleased;
 
     public ConstructSaveData() {
     }
 
-    public ConstructSaveData(Map<UUID, DynamicConstruct> constructs) {
+    public ConstructSaveData(Map<UUID, DynamicConstruct> constructs, boolean legacyChunksReleased) {
         this.constructs.putAll(constructs);
+        this.legacyChunksReleased = legacyChunksReleased;
         this.setDirty();
     }
 
@@ -62,4 +67,8 @@ public class ConstructSaveData extends SavedData {
     public Map<UUID, DynamicConstruct> getConstructs() {
         return constructs;
     }
+
+    public boolean isLegacyChunksReleased() {
+        return legacyChunksReleased;
+    }
 }
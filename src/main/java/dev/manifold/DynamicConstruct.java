@@ -61,7 +61,11 @@ public class DynamicConstruct {
     private int mass;
     private Vec3 centerOfMass;
 
-    private final BlockUnionGraph unionGraph = new BlockUnionGraph(); //todo make this reload on world load. or save it?
+    // Dense runtime index assigned by ConstructManager, not saved
+    private int handle = -1;
+
+    // Not saved; rebuilt from the sim dimension by ConstructConnectivityLoader after a load
+    private BlockUnionGraph unionGraph = new BlockUnionGraph();
 
     public DynamicConstruct(UUID id, ResourceKey<Level> world, BlockPos simOrigin) {
         this.id = id;
@@ -84,6 +88,14 @@ public class DynamicConstruct {
         return id;
     }
 
+    public int getHandle() {
+        return handle;
+    }
+
+    void setHandle(int handle) {
+        this.handle = handle;
+    }
+
     public ResourceKey<Level> getWorldKey() {
         return world;
     }
@@ -203,4 +215,8 @@ public class DynamicConstruct {
     public BlockUnionGraph getConnectivityGraph() {
         return unionGraph;
     }
+
+    public void setConnectivityGraph(BlockUnionGraph unionGraph) {
+        this.unionGraph = unionGraph;
+    }
 }
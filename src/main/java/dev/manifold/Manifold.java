@@ -10,10 +10,14 @@ import dev.manifold.mixin.accessor.ChunkMapMixin;
 import dev.manifold.mixin.accessor.MinecraftServerAccessor;
 import dev.manifold.mixin.accessor.ServerLevelAccessor;
 import dev.manifold.network.ManifoldPackets;
+import dev.manifold.sync.SyncConfig;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.progress.ChunkProgressListener;
@@ -38,6 +42,7 @@ public class Manifold implements ModInitializer {
         LOGGER.info("Starting Main Initialization");
 
         MassManager.init(Path.of("config/manifold"));
+        SyncConfig.init(Path.of("config/manifold"));
 
         ManifoldMenus.register();
 
@@ -98,5 +103,30 @@ public class Manifold implements ModInitializer {
                 ConstructManager.INSTANCE.tick(server);
             }
         });
+
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            if (ConstructManager.INSTANCE != null) {
+                ConstructManager.INSTANCE.getSyncManager().close();
+            }
+        });
+
+        // The client drops its construct render cache whenever its level changes, so resend everything
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            if (ConstructManager.INSTANCE != null) {
+                ConstructManager.INSTANCE.getSyncManager().forgetPlayer(handler.getPlayer().getUUID());
+            }
+        });
+
+        ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, origin, destination) -> {
+            if (ConstructManager.INSTANCE != null) {
+                ConstructManager.INSTANCE.getSyncManager().forgetPlayer(player.getUUID());
+            }
+        });
+
+        ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> {
+            if (ConstructManager.INSTANCE != null) {
+                ConstructManager.INSTANCE.getSyncManager().forgetPlayer(newPlayer.getUUID());
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package dev.manifold;
+
+/**
+ * Hands out construct regions of the sim dimension, lowest free index first.
+ * <p>
+ * Regions form a {@value #SIZE}x{@value #SIZE} grid and are addressed by packed {@code long} keys
+ * (see {@link #pack(int, int)}). Occupancy is kept in a three level bitmap: one bit per region, one bit per full
+ * word of the level below, so finding a free region touches at most a handful of words no matter how many are
+ * taken. Freed regions are reused.
+ */
+public class RegionAllocator {
+    public static final int SIZE = 2048;
+    private static final int REGIONS = SIZE * SIZE;
+
+    private final long[] used = new long[REGIONS >> 6];
+    private final long[] fullWords = new long[used.length >> 6];
+    private final long[] fullGroups = new long[fullWords.length >> 6];
+
+    public static long pack(int x, int z) {
+        return (long) x & 0xFFFFFFFFL | ((long) z & 0xFFFFFFFFL) << 32;
+    }
+
+    public static int unpackX(long key) {
+        return (int) key;
+    }
+
+    public static int unpackZ(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Takes the lowest free region.
+     *
+     * @return the packed region key
+     * @throws IllegalStateException if every region is taken
+     */
+    public long allocate() {
+        for (int group = 0; group < fullGroups.length; group++) {
+            if (fullGroups[group] == -1L) continue;
+
+            int wordGroup = (group << 6) + Long.numberOfTrailingZeros(~fullGroups[group]);
+            int word = (wordGroup << 6) + Long.numberOfTrailingZeros(~fullWords[wordGroup]);
+            int index = (word << 6) + Long.numberOfTrailingZeros(~used[word]);
+
+            mark(index);
+            return pack(index / SIZE, index % SIZE);
+        }
+        throw new IllegalStateException("No free region available for construct.");
+    }
+
+    /**
+     * Marks a region as taken, used for constructs loaded from disk. Regions outside the grid are ignored.
+     */
+    public void claim(int x, int z) {
+        if (inBounds(x, z)) {
+            mark(x * SIZE + z);
+        }
+    }
+
+    public void free(int x, int z) {
+        if (!inBounds(x, z)) return;
+
+        int index = x * SIZE + z;
+        int word = index >> 6;
+        int wordGroup = word >> 6;
+        used[word] &= ~(1L << index);
+        fullWords[wordGroup] &= ~(1L << word);
+        fullGroups[wordGroup >> 6] &= ~(1L << wordGroup);
+    }
+
+    public boolean isTaken(int x, int z) {
+        if (!inBounds(x, z)) return false;
+        int index = x * SIZE + z;
+        return (used[index >> 6] & 1L << index) != 0;
+    }
+
+    private void mark(int index) {
+        int word = index >> 6;
+        used[word] |= 1L << index;
+        if (used[word] != -1L) return;
+
+        int wordGroup = word >> 6;
+        fullWords[wordGroup] |= 1L << word;
+        if (fullWords[wordGroup] != -1L) return;
+
+        fullGroups[wordGroup >> 6] |= 1L << wordGroup;
+    }
+
+    private static boolean inBounds(int x, int z) {
+        return x >= 0 && x < SIZE && z >= 0 && z < SIZE;
+    }
+}
@@ -1,7 +1,16 @@
 package dev.manifold;
 
 import dev.manifold.mixin.accessor.EntityAccessor;
+import dev.manifold.sync.SectionVersionTracker;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
@@ -11,45 +20,167 @@ import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.CustomSpawner;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraft.world.level.dimension.LevelStem;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.lighting.LevelLightEngine;
 import net.minecraft.world.level.storage.LevelStorageSource;
 import net.minecraft.world.level.storage.ServerLevelData;
 import net.minecraft.world.phys.Vec3;
 import org.jetbrains.annotations.Nullable;
-import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.Executor;
 
 public class SimLevel extends ServerLevel {
+    private final SectionVersionTracker sectionVersions = new SectionVersionTracker();
+
     public SimLevel(MinecraftServer minecraftServer, Executor executor, LevelStorageSource.LevelStorageAccess levelStorageAccess, ServerLevelData serverLevelData, ResourceKey<Level> resourceKey, LevelStem levelStem, ChunkProgressListener chunkProgressListener, boolean bl, long l, List<CustomSpawner> list, boolean bl2, @Nullable RandomSequences randomSequences) {
         super(minecraftServer, executor, levelStorageAccess, serverLevelData, resourceKey, levelStem, chunkProgressListener, bl, l, list, bl2, randomSequences);
     }
 
     @Override
     public boolean setBlock(BlockPos blockPos, BlockState blockState, int i, int j) {
-        return super.setBlock(blockPos, blockState, i, j);
+        boolean changed = super.setBlock(blockPos, blockState, i, j);
+        if (changed) {
+            sectionVersions.markChanged(SectionPos.asLong(
+                    SectionPos.blockToSectionCoord(blockPos.getX()),
+                    SectionPos.blockToSectionCoord(blockPos.getY()),
+                    SectionPos.blockToSectionCoord(blockPos.getZ())
+            ));
+        }
+        return changed;
+    }
+
+    /**
+     * Moves blocks to {@code offset} from where they are, section by section.
+     * <p>
+     * States are written straight into the chunk sections, so no neighbor updates, shape updates, block-entity
+     * removal callbacks or per-block client packets fire. Block entities are carried over through their NBT.
+     * Afterwards heightmaps are recomputed once per touched chunk, light is rechecked at the moved cells in a
+     * single batch, and every touched section is marked changed for construct sync.
+     *
+     * @param sources absolute positions to move; air cells are skipped
+     * @param offset  whole-section displacement into a region that does not overlap the sources,
+     *                e.g. from one construct region to another
+     */
+    public void moveBlocks(Collection<BlockPos> sources, BlockPos offset) {
+        if (((offset.getX() | offset.getY() | offset.getZ()) & 15) != 0) {
+            throw new IllegalArgumentException("Offset must be section aligned: " + offset);
+        }
+        BlockState air = Blocks.AIR.defaultBlockState();
+        LevelLightEngine lightEngine = getChunkSource().getLightEngine();
+
+        // Group by source section; with an aligned offset each maps onto exactly one target section
+        Long2ObjectOpenHashMap<LongArrayList> bySection = new Long2ObjectOpenHashMap<>();
+        for (BlockPos pos : sources) {
+            bySection.computeIfAbsent(SectionPos.asLong(pos), key -> new LongArrayList()).add(pos.asLong());
+        }
+
+        LongOpenHashSet touchedSections = new LongOpenHashSet();
+        Set<LevelChunk> touchedChunks = new ReferenceOpenHashSet<>();
+        LongArrayList moved = new LongArrayList();
+        BlockPos.MutableBlockPos from = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos to = new BlockPos.MutableBlockPos();
+
+        for (Long2ObjectMap.Entry<LongArrayList> entry : bySection.long2ObjectEntrySet()) {
+            LongArrayList positions = entry.getValue();
+            from.set(positions.getLong(0));
+            to.setWithOffset(from, offset);
+
+            LevelChunk sourceChunk = getChunkAt(from);
+            LevelChunk targetChunk = getChunkAt(to);
+            LevelChunkSection source = sourceChunk.getSection(getSectionIndex(from.getY()));
+            LevelChunkSection target = targetChunk.getSection(getSectionIndex(to.getY()));
+            boolean sourceWasEmpty = source.hasOnlyAir();
+            boolean targetWasEmpty = target.hasOnlyAir();
+
+            for (int i = 0; i < positions.size(); i++) {
+                from.set(positions.getLong(i));
+                to.setWithOffset(from, offset);
+                BlockState state = source.getBlockState(from.getX() & 15, from.getY() & 15, from.getZ() & 15);
+                if (state.isAir()) continue;
+
+                CompoundTag blockEntityTag = null;
+                if (state.hasBlockEntity()) {
+                    BlockEntity blockEntity = sourceChunk.getBlockEntity(from, LevelChunk.EntityCreationType.CHECK);
+                    if (blockEntity != null) {
+                        blockEntityTag = blockEntity.saveWithFullMetadata(registryAccess());
+                        sourceChunk.removeBlockEntity(from);
+                    }
+                }
+
+                target.setBlockState(to.getX() & 15, to.getY() & 15, to.getZ() & 15, state, false);
+                source.setBlockState(from.getX() & 15, from.getY() & 15, from.getZ() & 15, air, false);
+
+                if (blockEntityTag != null) {
+                    BlockEntity movedBlockEntity = BlockEntity.loadStatic(to.immutable(), state, blockEntityTag, registryAccess());
+                    if (movedBlockEntity != null) {
+                        targetChunk.addAndRegisterBlockEntity(movedBlockEntity);
+                    }
+                }
+                moved.add(from.asLong());
+                moved.add(to.asLong());
+            }
+
+            if (source.hasOnlyAir() != sourceWasEmpty) {
+                lightEngine.updateSectionStatus(SectionPos.of(from), source.hasOnlyAir());
+            }
+            if (target.hasOnlyAir() != targetWasEmpty) {
+                lightEngine.updateSectionStatus(SectionPos.of(to), target.hasOnlyAir());
+            }
+            touchedSections.add(entry.getLongKey());
+            touchedSections.add(SectionPos.asLong(to));
+            touchedChunks.add(sourceChunk);
+            touchedChunks.add(targetChunk);
+        }
+
+        // Once per chunk instead of once per block
+        for (LevelChunk chunk : touchedChunks) {
+            Set<Heightmap.Types> types = EnumSet.noneOf(Heightmap.Types.class);
+            for (Map.Entry<Heightmap.Types, Heightmap> heightmap : chunk.getHeightmaps()) {
+                types.add(heightmap.getKey());
+            }
+            Heightmap.primeHeightmaps(chunk, types);
+            chunk.setUnsaved(true);
+        }
+
+        // One batch for the light engine
+        for (int i = 0; i < moved.size(); i++) {
+            lightEngine.checkBlock(from.set(moved.getLong(i)));
+        }
+
+        for (LongIterator it = touchedSections.iterator(); it.hasNext(); ) {
+            sectionVersions.markChanged(it.nextLong());
+        }
+    }
+
+    /**
+     * Block and light change versions for every section in this dimension, used for delta sync.
+     */
+    public SectionVersionTracker getSectionVersions() {
+        return sectionVersions;
     }
 
     @Override
     public boolean addFreshEntity(Entity entity) {
-        Optional<UUID> uuid = ConstructManager.INSTANCE.getConstructAt(entity.position());
-        if (uuid.isPresent()) {
-            UUID construct = uuid.get();
-            Optional<ServerLevel> level = ConstructManager.INSTANCE.getRenderLevel(construct);
-            Optional<Quaternionf> rotation = ConstructManager.INSTANCE.getRotation(construct);
-            if (level.isPresent() && rotation.isPresent()) {
-                ((EntityAccessor) entity).setLevel(level.get());
-                entity.setPos(ConstructManager.INSTANCE.getRenderPosFromSim(construct, entity.position()));
+        ConstructManager manager = ConstructManager.INSTANCE;
+        DynamicConstruct construct = manager.getConstructByHandle(manager.getConstructHandleAt(entity.getX(), entity.getZ()));
+        if (construct != null) {
+            ServerLevel level = getServer().getLevel(construct.getWorldKey());
+            if (level != null) {
+                ((EntityAccessor) entity).setLevel(level);
+                entity.setPos(manager.getRenderPosFromSim(construct, entity.position()));
                 Vec3 velocity = entity.getDeltaMovement();
                 Vector3f rotatedVelocity = new Vector3f((float) velocity.x, (float) velocity.y, (float) velocity.z);
-                rotatedVelocity.rotate(rotation.get());
+                rotatedVelocity.rotate(construct.getRotation());
                 entity.setDeltaMovement(new Vec3(rotatedVelocity));
-                level.get().addFreshEntity(entity);
+                level.addFreshEntity(entity);
                 return true;
             }
         }
@@ -58,16 +189,16 @@ public class SimLevel extends ServerLevel {
 
     @Override
     public int getBrightness(LightLayer lightLayer, BlockPos blockPos) {
-        Optional<UUID> uuid = ConstructManager.INSTANCE.getConstructAt(Vec3.atLowerCornerOf(blockPos));
-        if (uuid.isPresent()) {
-            UUID construct = uuid.get();
-            Optional<ServerLevel> level = ConstructManager.INSTANCE.getRenderLevel(construct);
-            if (level.isPresent()) {
-                Vec3 position = ConstructManager.INSTANCE.getRenderPosFromSim(construct, Vec3.atLowerCornerOf(blockPos));
+        ConstructManager manager = ConstructManager.INSTANCE;
+        DynamicConstruct construct = manager.getConstructByHandle(manager.getConstructHandleAt(blockPos.getX(), blockPos.getZ()));
+        if (construct != null) {
+            ServerLevel level = getServer().getLevel(construct.getWorldKey());
+            if (level != null) {
                 if (lightLayer == LightLayer.SKY) {
-                    return level.get().getLightEngine().getLayerListener(lightLayer).getLightValue(BlockPos.containing(position));
+                    Vec3 position = manager.getRenderPosFromSim(construct, Vec3.atLowerCornerOf(blockPos));
+                    return level.getLightEngine().getLayerListener(lightLayer).getLightValue(BlockPos.containing(position));
                 } else if (lightLayer == LightLayer.BLOCK) {
-                    return ConstructManager.INSTANCE.getSimDimension().getLightEngine().getLayerListener(lightLayer).getLightValue(blockPos);
+                    return getLightEngine().getLayerListener(lightLayer).getLightValue(blockPos);
                 }
             }
         }
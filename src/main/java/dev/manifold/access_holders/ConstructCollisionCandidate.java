@@ -0,0 +1,6 @@
+package dev.manifold.access_holders;
+
+public interface ConstructCollisionCandidate {
+    long manifold$getConstructCandidateEpoch();
+    void manifold$setConstructCandidateEpoch(long epoch);
+}
@@ -0,0 +1,7 @@
+package dev.manifold.access_holders;
+
+import dev.manifold.physics.collision.ConstructContactCache;
+
+public interface ConstructContactHolder {
+    ConstructContactCache manifold$getContactCache();
+}
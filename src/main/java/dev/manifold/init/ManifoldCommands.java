@@ -1,12 +1,19 @@
 package dev.manifold.init;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import dev.manifold.ConstructManager;
 import dev.manifold.DynamicConstruct;
 import dev.manifold.Manifold;
 import dev.manifold.SeparatorRecord;
 import dev.manifold.gui.MassScreenHandler;
+import dev.manifold.physics.collision.ConstructCollisionEngine;
+import dev.manifold.physics.collision.ConstructCollisionManager;
+import dev.manifold.sync.ConstructSyncManager;
+import dev.manifold.sync.PlayerConstructView;
+import dev.manifold.sync.SyncConfig;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandBuildContext;
 import net.minecraft.commands.CommandSourceStack;
@@ -300,6 +307,93 @@ public class ManifoldCommands {
                                     return 1;
                                 })
                         )
+
+                        // --- /manifold sync stats ---
+                        .then(literal("sync")
+                                .then(literal("stats")
+                                        .executes(ctx -> {
+                                            CommandSourceStack source = ctx.getSource();
+                                            ConstructSyncManager sync = ConstructManager.INSTANCE.getSyncManager();
+
+                                            source.sendSuccess(() -> Component.literal("Construct section traffic since each player's last world change:"), false);
+                                            for (ServerPlayer player : source.getServer().getPlayerList().getPlayers()) {
+                                                PlayerConstructView view = sync.getView(player.getUUID());
+                                                if (view == null || view.getRawSectionBytes() == 0) continue;
+
+                                                long raw = view.getRawSectionBytes();
+                                                long sent = view.getSentSectionBytes();
+                                                String line = String.format("%s: %.1f KiB sent for %.1f KiB of sections (%.1f%%)",
+                                                        player.getGameProfile().getName(), sent / 1024.0, raw / 1024.0, 100.0 * sent / raw);
+                                                source.sendSuccess(() -> Component.literal(line).withStyle(ChatFormatting.GRAY), false);
+                                            }
+                                            return 1;
+                                        })
+                                )
+
+                                // --- /manifold sync viewdistance <chunks> ---
+                                .then(literal("viewdistance")
+                                        .then(argument("chunks", IntegerArgumentType.integer(1, 64))
+                                                .executes(ctx -> {
+                                                    int chunks = IntegerArgumentType.getInteger(ctx, "chunks");
+                                                    SyncConfig.setViewDistance(chunks);
+                                                    SyncConfig.save();
+                                                    ctx.getSource().sendSuccess(() -> Component.literal("Construct view distance set to " + chunks + " chunks."), true);
+                                                    return 1;
+                                                })
+                                        )
+                                )
+
+                                // --- /manifold sync budget <bytesPerTick> ---
+                                .then(literal("budget")
+                                        .then(argument("bytesPerTick", IntegerArgumentType.integer(1024))
+                                                .executes(ctx -> {
+                                                    int bytes = IntegerArgumentType.getInteger(ctx, "bytesPerTick");
+                                                    SyncConfig.setBytesPerTick(bytes);
+                                                    SyncConfig.save();
+                                                    ctx.getSource().sendSuccess(() -> Component.literal("Construct section budget set to " + bytes + " bytes per tick."), true);
+                                                    return 1;
+                                                })
+                                        )
+                                )
+
+                                // --- /manifold sync compression <enabled> ---
+                                .then(literal("compression")
+                                        .then(argument("enabled", BoolArgumentType.bool())
+                                                .executes(ctx -> {
+                                                    boolean enabled = BoolArgumentType.getBool(ctx, "enabled");
+                                                    ConstructManager.INSTANCE.getSyncManager().setCompressionEnabled(enabled);
+                                                    ctx.getSource().sendSuccess(() -> Component.literal("Construct section compression " + (enabled ? "enabled." : "disabled.")), true);
+                                                    return 1;
+                                                })
+                                        )
+                                )
+                        )
+
+                        // --- /manifold collision voxels <enabled> ---
+                        .then(literal("collision")
+                                .then(literal("voxels")
+                                        .then(argument("enabled", BoolArgumentType.bool())
+                                                .executes(ctx -> {
+                                                    boolean enabled = BoolArgumentType.getBool(ctx, "enabled");
+                                                    ConstructCollisionManager.setVoxelPath(enabled);
+                                                    ctx.getSource().sendSuccess(() -> Component.literal("Construct voxel collision path " + (enabled ? "enabled." : "disabled.")), true);
+                                                    return 1;
+                                                })
+                                        )
+                                )
+
+                                // --- /manifold collision marking <enabled> ---
+                                .then(literal("marking")
+                                        .then(argument("enabled", BoolArgumentType.bool())
+                                                .executes(ctx -> {
+                                                    boolean enabled = BoolArgumentType.getBool(ctx, "enabled");
+                                                    ConstructCollisionEngine.setCandidateMarking(enabled);
+                                                    ctx.getSource().sendSuccess(() -> Component.literal("Construct collision candidate marking " + (enabled ? "enabled." : "disabled.")), true);
+                                                    return 1;
+                                                })
+                                        )
+                                )
+                        )
         );
     }
 }
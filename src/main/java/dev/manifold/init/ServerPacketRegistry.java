@@ -11,6 +11,16 @@ public class ServerPacketRegistry {
                 ConstructSectionDataS2CPacket.CODEC
         );
 
+        PayloadTypeRegistry.playS2C().register(
+                PacketTypes.CONSTRUCT_POSE,
+                ConstructPoseS2CPacket.CODEC
+        );
+
+        PayloadTypeRegistry.playS2C().register(
+                PacketTypes.CONSTRUCT_DICTIONARY,
+                ConstructDictionaryS2CPacket.CODEC
+        );
+
         PayloadTypeRegistry.playS2C().register(
                 PacketTypes.PICK_CONSTRUCT_BLOCK_S2C,
                 PickConstructBlockWithDataS2CPacket.CODEC
@@ -21,6 +31,11 @@ public class ServerPacketRegistry {
                 RemoveConstructS2CPacket.CODEC
         );
 
+        PayloadTypeRegistry.playC2S().register(
+                PacketTypes.CONSTRUCT_RESYNC,
+                ConstructResyncC2SPacket.CODEC
+        );
+
         PayloadTypeRegistry.playC2S().register(
                 PacketTypes.BREAK_IN_CONSTRUCT,
                 BreakInConstructC2SPacket.CODEC
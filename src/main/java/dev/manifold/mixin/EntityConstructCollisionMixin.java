@@ -1,7 +1,10 @@
 package dev.manifold.mixin;
 
 import com.llamalad7.mixinextras.injector.ModifyReturnValue;
+import dev.manifold.access_holders.ConstructCollisionCandidate;
+import dev.manifold.access_holders.ConstructContactHolder;
 import dev.manifold.physics.collision.ConstructCollisionEngine;
+import dev.manifold.physics.collision.ConstructContactCache;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.AABB;
@@ -11,7 +14,10 @@ import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 
 @Mixin(Entity.class)
-public abstract class EntityConstructCollisionMixin {
+public abstract class EntityConstructCollisionMixin implements ConstructCollisionCandidate, ConstructContactHolder {
+    private long manifold$constructCandidateEpoch = -1L;
+    private ConstructContactCache manifold$contactCache;
+
     @Shadow public abstract AABB getBoundingBox();
     @Shadow public abstract Level level();
     @Shadow public abstract float maxUpStep();
@@ -28,9 +34,35 @@ public abstract class EntityConstructCollisionMixin {
     )
     private Vec3 manifold$applyConstructCollisions(Vec3 vanillaResolved) {
         final Entity self = (Entity) (Object) this;
+        // Let go of constructs that were removed, even once this entity stops colliding with constructs at all
+        if (this.manifold$contactCache != null) {
+            this.manifold$contactCache.prune();
+        }
+        if (!ConstructCollisionEngine.isCandidate(self, this.manifold$constructCandidateEpoch, vanillaResolved)) {
+            return vanillaResolved;
+        }
+
         final AABB startBB = this.getBoundingBox();
         final float stepHeight = Math.max(0.0f, this.maxUpStep());
 
         return ConstructCollisionEngine.resolveMotion(self, startBB, vanillaResolved, stepHeight);
     }
+
+    @Override
+    public long manifold$getConstructCandidateEpoch() {
+        return this.manifold$constructCandidateEpoch;
+    }
+
+    @Override
+    public void manifold$setConstructCandidateEpoch(long epoch) {
+        this.manifold$constructCandidateEpoch = epoch;
+    }
+
+    @Override
+    public ConstructContactCache manifold$getContactCache() {
+        if (this.manifold$contactCache == null) {
+            this.manifold$contactCache = new ConstructContactCache();
+        }
+        return this.manifold$contactCache;
+    }
 }
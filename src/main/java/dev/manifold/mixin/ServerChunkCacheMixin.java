@@ -0,0 +1,29 @@
+package dev.manifold.mixin;
+
+import dev.manifold.SimLevel;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.LightLayer;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerChunkCache.class)
+public class ServerChunkCacheMixin {
+    @Shadow @Final ServerLevel level;
+
+    /**
+     * Light changes in the sim dimension invalidate the section for construct delta sync.
+     * Called from the light engine thread.
+     */
+    @Inject(method = "onLightUpdate", at = @At("HEAD"))
+    private void manifold$trackSimLightChange(LightLayer lightLayer, SectionPos sectionPos, CallbackInfo ci) {
+        if (this.level instanceof SimLevel simLevel) {
+            simLevel.getSectionVersions().markChanged(sectionPos.asLong());
+        }
+    }
+}
@@ -21,7 +21,7 @@ public class ServerLevelSaveMixin {
         ConstructManager manager = ConstructManager.INSTANCE;
         if (manager == null) return;
 
-        ConstructSaveData data = new ConstructSaveData(manager.getConstructs());
+        ConstructSaveData data = manager.toSaveData();
         level.getDataStorage().set("manifold_constructs", data);
     }
 }
\ No newline at end of file
@@ -17,5 +17,7 @@ public class ManifoldPackets {
 
         ServerPlayNetworking.registerGlobalReceiver(MassUpdateC2SPacket.TYPE, (packet, context) -> context.server().execute(() -> MassUpdateC2SPacket.handle(packet, context.server())));
 
+        ServerPlayNetworking.registerGlobalReceiver(ConstructResyncC2SPacket.TYPE, (packet, context) -> context.server().execute(() -> ConstructManager.INSTANCE.getSyncManager().resync(context.player().getUUID(), packet.constructId())));
+
     }
 }
\ No newline at end of file
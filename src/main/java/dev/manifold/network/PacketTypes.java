@@ -8,6 +8,15 @@ public class PacketTypes {
     public static final CustomPacketPayload.Type<ConstructSectionDataS2CPacket> CONSTRUCT_SECTION =
             new CustomPacketPayload.Type<>(Constant.id("construct_section"));
 
+    public static final CustomPacketPayload.Type<ConstructPoseS2CPacket> CONSTRUCT_POSE =
+            new CustomPacketPayload.Type<>(Constant.id("construct_pose"));
+
+    public static final CustomPacketPayload.Type<ConstructDictionaryS2CPacket> CONSTRUCT_DICTIONARY =
+            new CustomPacketPayload.Type<>(Constant.id("construct_dictionary"));
+
+    public static final CustomPacketPayload.Type<ConstructResyncC2SPacket> CONSTRUCT_RESYNC =
+            new CustomPacketPayload.Type<>(Constant.id("construct_resync"));
+
     public static final CustomPacketPayload.Type<BreakInConstructC2SPacket> BREAK_IN_CONSTRUCT =
             new CustomPacketPayload.Type<>(Constant.id("break_in_construct"));
 
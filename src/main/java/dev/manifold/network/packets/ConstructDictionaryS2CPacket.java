@@ -0,0 +1,39 @@
+package dev.manifold.network.packets;
+
+import dev.manifold.Constant;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Preset deflate dictionary for the compressed section bodies of one construct.
+ * Always sent before the first {@link ConstructSectionDataS2CPacket} that relies on it.
+ */
+public record ConstructDictionaryS2CPacket(UUID constructId, int version, byte[] dictionary) implements CustomPacketPayload {
+    public static final CustomPacketPayload.Type<ConstructDictionaryS2CPacket> TYPE =
+            new CustomPacketPayload.Type<>(Constant.id("construct_dictionary"));
+
+    public static final StreamCodec<FriendlyByteBuf, ConstructDictionaryS2CPacket> CODEC =
+            StreamCodec.of(
+                    ConstructDictionaryS2CPacket::writeToBuf,
+                    ConstructDictionaryS2CPacket::readFromBuf
+            );
+
+    public static ConstructDictionaryS2CPacket readFromBuf(FriendlyByteBuf buf) {
+        return new ConstructDictionaryS2CPacket(buf.readUUID(), buf.readVarInt(), buf.readByteArray());
+    }
+
+    public static void writeToBuf(FriendlyByteBuf buf, ConstructDictionaryS2CPacket packet) {
+        buf.writeUUID(packet.constructId());
+        buf.writeVarInt(packet.version());
+        buf.writeByteArray(packet.dictionary());
+    }
+
+    @Override
+    public @NotNull Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,108 @@
+package dev.manifold.network.packets;
+
+import dev.manifold.Constant;
+import dev.manifold.DynamicConstruct;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Quaternionf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One frame of construct transforms for a single server tick.
+ * <p>
+ * All constructs a player can see are batched into one packet per tick. Position is sent at double
+ * precision; everything else fits in floats, so each construct costs roughly 90 bytes.
+ */
+public record ConstructPoseS2CPacket(
+        long serverTick,
+        List<Pose> poses
+) implements CustomPacketPayload {
+    public static final CustomPacketPayload.Type<ConstructPoseS2CPacket> TYPE =
+            new CustomPacketPayload.Type<>(Constant.id("construct_pose"));
+
+    public static final StreamCodec<FriendlyByteBuf, ConstructPoseS2CPacket> CODEC =
+            StreamCodec.of(
+                    ConstructPoseS2CPacket::writeToBuf,
+                    ConstructPoseS2CPacket::readFromBuf
+            );
+
+    public static ConstructPoseS2CPacket readFromBuf(FriendlyByteBuf buf) {
+        long serverTick = buf.readVarLong();
+        int count = buf.readVarInt();
+        List<Pose> poses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            poses.add(Pose.read(buf));
+        }
+        return new ConstructPoseS2CPacket(serverTick, poses);
+    }
+
+    public static void writeToBuf(FriendlyByteBuf buf, ConstructPoseS2CPacket packet) {
+        buf.writeVarLong(packet.serverTick());
+        buf.writeVarInt(packet.poses().size());
+        for (Pose pose : packet.poses()) {
+            pose.write(buf);
+        }
+    }
+
+    @Override
+    public @NotNull Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public record Pose(
+            UUID constructId,
+            Vec3 position,
+            Vec3 velocity,
+            Quaternionf rotation,
+            Quaternionf angularVelocity,
+            Vec3 centerOfMass
+    ) {
+        public static Pose of(DynamicConstruct construct) {
+            return new Pose(
+                    construct.getId(),
+                    construct.getPosition(),
+                    construct.getVelocity(),
+                    new Quaternionf(construct.getRotation()),
+                    new Quaternionf(construct.getAngularVelocity()),
+                    construct.getCenterOfMass()
+            );
+        }
+
+        private static Pose read(FriendlyByteBuf buf) {
+            UUID constructId = buf.readUUID();
+            Vec3 position = new Vec3(buf.readDouble(), buf.readDouble(), buf.readDouble());
+            Vec3 velocity = new Vec3(buf.readFloat(), buf.readFloat(), buf.readFloat());
+            Quaternionf rotation = new Quaternionf(buf.readFloat(), buf.readFloat(), buf.readFloat(), buf.readFloat());
+            Quaternionf angularVelocity = new Quaternionf(buf.readFloat(), buf.readFloat(), buf.readFloat(), buf.readFloat());
+            Vec3 centerOfMass = new Vec3(buf.readFloat(), buf.readFloat(), buf.readFloat());
+            return new Pose(constructId, position, velocity, rotation, angularVelocity, centerOfMass);
+        }
+
+        private void write(FriendlyByteBuf buf) {
+            buf.writeUUID(constructId);
+            buf.writeDouble(position.x);
+            buf.writeDouble(position.y);
+            buf.writeDouble(position.z);
+            buf.writeFloat((float) velocity.x);
+            buf.writeFloat((float) velocity.y);
+            buf.writeFloat((float) velocity.z);
+            buf.writeFloat(rotation.x);
+            buf.writeFloat(rotation.y);
+            buf.writeFloat(rotation.z);
+            buf.writeFloat(rotation.w);
+            buf.writeFloat(angularVelocity.x);
+            buf.writeFloat(angularVelocity.y);
+            buf.writeFloat(angularVelocity.z);
+            buf.writeFloat(angularVelocity.w);
+            buf.writeFloat((float) centerOfMass.x);
+            buf.writeFloat((float) centerOfMass.y);
+            buf.writeFloat((float) centerOfMass.z);
+        }
+    }
+}
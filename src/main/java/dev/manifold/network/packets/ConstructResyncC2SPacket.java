@@ -0,0 +1,37 @@
+package dev.manifold.network.packets;
+
+import dev.manifold.Constant;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Sent when the client could not apply a section packet (unknown dictionary, corrupt body). The server
+ * forgets what it sent of that construct and resends it in full.
+ */
+public record ConstructResyncC2SPacket(UUID constructId) implements CustomPacketPayload {
+    public static final CustomPacketPayload.Type<ConstructResyncC2SPacket> TYPE =
+            new CustomPacketPayload.Type<>(Constant.id("construct_resync"));
+
+    public static final StreamCodec<FriendlyByteBuf, ConstructResyncC2SPacket> CODEC =
+            StreamCodec.of(
+                    ConstructResyncC2SPacket::writeToBuf,
+                    ConstructResyncC2SPacket::readFromBuf
+            );
+
+    public static ConstructResyncC2SPacket readFromBuf(FriendlyByteBuf buf) {
+        return new ConstructResyncC2SPacket(buf.readUUID());
+    }
+
+    public static void writeToBuf(FriendlyByteBuf buf, ConstructResyncC2SPacket packet) {
+        buf.writeUUID(packet.constructId());
+    }
+
+    @Override
+    public @NotNull Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -1,20 +1,38 @@
 package dev.manifold.network.packets;
 
 import dev.manifold.Constant;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.registries.Registries;
-import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.DataLayer;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
+/**
+ * Changed sections of one construct.
+ * <p>
+ * {@code chunks} holds {@code chunkCount} chunk records in a compact binary layout:
+ * <pre>
+ * chunk:   varint dx, varint dz (relative to minChunk), bitset of included section indices,
+ *          then one section body per set bit in ascending order
+ * section: byte flags ({@link #HAS_BLOCKS}, {@link #HAS_BLOCK_LIGHT}, {@link #HAS_SKY_LIGHT}),
+ *          raw {@code LevelChunkSection} bytes if HAS_BLOCKS,
+ *          2048 byte nibble array per light flag
+ * </pre>
+ * A section that is included without {@link #HAS_BLOCKS} is empty now. Bodies flagged {@link #COMPRESSED} are
+ * deflated against dictionary {@code dictionaryVersion} of the construct, see
+ * {@link dev.manifold.sync.SectionCompression}.
+ * <p>
+ * {@code chunks} is always an unpooled heap buffer owned by the packet alone, so it may be encoded any number
+ * of times (or never, on in-memory connections) and nobody has to release it.
+ */
 public record ConstructSectionDataS2CPacket(
         UUID constructId,
         BlockPos origin,
@@ -22,9 +40,16 @@ public record ConstructSectionDataS2CPacket(
         int minChunkZ,
         int chunkSizeX,
         int chunkSizeZ,
-        List<CompoundTag> chunkNbtList,
+        int dictionaryVersion,
+        int chunkCount,
+        ByteBuf chunks,
         ResourceKey<Level> worldKey
 ) implements CustomPacketPayload {
+    public static final int HAS_BLOCKS = 1;
+    public static final int HAS_BLOCK_LIGHT = 1 << 1;
+    public static final int HAS_SKY_LIGHT = 1 << 2;
+    public static final int COMPRESSED = 1 << 3;
+
     public static final CustomPacketPayload.Type<ConstructSectionDataS2CPacket> TYPE =
             new CustomPacketPayload.Type<>(Constant.id("construct_section"));
 
@@ -41,18 +66,19 @@ public record ConstructSectionDataS2CPacket(
         int minChunkZ = buf.readVarInt();
         int chunkSizeX = buf.readVarInt();
         int chunkSizeZ = buf.readVarInt();
+        int dictionaryVersion = buf.readVarInt();
 
-        int listSize = buf.readVarInt();
-        List<CompoundTag> chunkNbtList = new ArrayList<>(listSize);
-        for (int i = 0; i < listSize; i++) {
-            chunkNbtList.add(buf.readNbt());
-        }
+        // Copy out of the received frame, which goes back to the pool once decoding is done
+        int chunkCount = buf.readVarInt();
+        int length = buf.readVarInt();
+        ByteBuf chunks = Unpooled.buffer(length);
+        buf.readBytes(chunks, length);
 
         // NEW: read the target render dimension
         ResourceKey<Level> worldKey = buf.readResourceKey(Registries.DIMENSION);
 
         return new ConstructSectionDataS2CPacket(
-                constructId, origin, minChunkX, minChunkZ, chunkSizeX, chunkSizeZ, chunkNbtList, worldKey
+                constructId, origin, minChunkX, minChunkZ, chunkSizeX, chunkSizeZ, dictionaryVersion, chunkCount, chunks, worldKey
         );
     }
 
@@ -63,18 +89,28 @@ public record ConstructSectionDataS2CPacket(
         buf.writeVarInt(packet.minChunkZ());
         buf.writeVarInt(packet.chunkSizeX());
         buf.writeVarInt(packet.chunkSizeZ());
+        buf.writeVarInt(packet.dictionaryVersion());
 
-        buf.writeVarInt(packet.chunkNbtList().size());
-        for (CompoundTag tag : packet.chunkNbtList()) {
-            buf.writeNbt(tag);
-        }
+        ByteBuf chunks = packet.chunks();
+        buf.writeVarInt(packet.chunkCount());
+        buf.writeVarInt(chunks.readableBytes());
+        buf.writeBytes(chunks, chunks.readerIndex(), chunks.readableBytes());
 
         // NEW: write the target render dimension
         buf.writeResourceKey(packet.worldKey());
     }
 
+    /**
+     * Reads a light nibble array written after a light flag.
+     */
+    public static DataLayer readLight(ByteBuf buf) {
+        byte[] data = new byte[DataLayer.SIZE];
+        buf.readBytes(data);
+        return new DataLayer(data);
+    }
+
     @Override
     public @NotNull Type<? extends CustomPacketPayload> type() {
         return TYPE;
     }
-}
\ No newline at end of file
+}
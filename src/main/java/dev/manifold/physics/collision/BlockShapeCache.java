@@ -0,0 +1,80 @@
+package dev.manifold.physics.collision;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.shapes.VoxelShape;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Shared cache from {@link BlockState} to its collision boxes, for every construct.
+ *
+ * - States without collision (air, flowers, torches...) map to {@link #EMPTY}.
+ * - Full cubes map to {@link VoxelCollisionGrid#FULL}.
+ * - Anything else maps to an index into a global table of boxes, stored as
+ *   {minX, minY, minZ, maxX, maxY, maxZ} runs relative to the block corner.
+ *
+ * Shapes are taken at {@link BlockPos#ZERO} in an empty world, so position-dependent
+ * offsets (bamboo, dripstone) collide at their unoffset shape.
+ */
+public final class BlockShapeCache {
+
+    /**
+     * Shape index of a state that does not collide at all.
+     */
+    public static final int EMPTY = -2;
+
+    private static final Map<BlockState, Integer> SHAPE_INDICES = new ConcurrentHashMap<>();
+    private static final List<double[]> SHAPES = new CopyOnWriteArrayList<>();
+
+    private BlockShapeCache() {}
+
+    /**
+     * Returns {@link #EMPTY}, {@link VoxelCollisionGrid#FULL} or a shape index for {@link #getBoxes}.
+     */
+    public static int getShape(BlockState state) {
+        Integer index = SHAPE_INDICES.get(state);
+        if (index != null) {
+            return index;
+        }
+        return SHAPE_INDICES.computeIfAbsent(state, BlockShapeCache::compute);
+    }
+
+    public static double[] getBoxes(int shape) {
+        return SHAPES.get(shape);
+    }
+
+    private static int compute(BlockState state) {
+        VoxelShape shape = state.getCollisionShape(EmptyBlockGetter.INSTANCE, BlockPos.ZERO);
+        if (shape.isEmpty()) {
+            return EMPTY;
+        }
+        if (Block.isShapeFullBlock(shape)) {
+            return VoxelCollisionGrid.FULL;
+        }
+
+        List<AABB> aabbs = shape.toAabbs();
+        double[] boxes = new double[aabbs.size() * 6];
+        for (int i = 0; i < aabbs.size(); i++) {
+            AABB box = aabbs.get(i);
+            boxes[i * 6] = box.minX;
+            boxes[i * 6 + 1] = box.minY;
+            boxes[i * 6 + 2] = box.minZ;
+            boxes[i * 6 + 3] = box.maxX;
+            boxes[i * 6 + 4] = box.maxY;
+            boxes[i * 6 + 5] = box.maxZ;
+        }
+
+        // Different states may be computed concurrently; keep add + index atomic
+        synchronized (SHAPES) {
+            SHAPES.add(boxes);
+            return SHAPES.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package dev.manifold.physics.collision;
+
+import dev.manifold.DynamicConstruct;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.phys.Vec3;
+import org.joml.Quaternionf;
+
+/**
+ * Per-construct axis data for the SAT kernel, held in primitive doubles.
+ *
+ * - Rotation matrix (row-major) and its component-wise absolute value.
+ * - The 15 SAT axes: world X/Y/Z, construct axes a0..a2, and the 9 cross products.
+ * - For each axis, |ai . L| and |L| component-wise, so a box only costs a few multiplies per axis.
+ *
+ * Refreshed only when the construct's pose actually changes, i.e. at most once per tick.
+ */
+final class CollisionPose {
+
+    static final int AXES = 15;
+
+    private DynamicConstruct construct;
+    private Vec3 position;
+    private Vec3 centerOfMass;
+    private BlockPos negativeBounds;
+    private BlockPos positiveBounds;
+    private float qx, qy, qz, qw;
+
+    double px, py, pz;
+    double comX, comY, comZ;
+    // {min xyz, max xyz}
+    final double[] hull = new double[6];
+
+    final double[] r = new double[9];
+    final double[] absR = new double[9];
+    final double[] axes = new double[AXES * 3];
+    // |a0 . L|, |a1 . L|, |a2 . L| per axis
+    final double[] absAL = new double[AXES * 3];
+    // |L.x|, |L.y|, |L.z| per axis
+    final double[] absL = new double[AXES * 3];
+    // 1 / |L|, or 0 for degenerate axes
+    final double[] invLen = new double[AXES];
+
+    /**
+     * Recomputes the axis data if anything it depends on changed since the last call.
+     */
+    void update(DynamicConstruct c) {
+        Vec3 pos = c.getPosition();
+        Vec3 com = c.getCenterOfMass();
+        Quaternionf q = c.getRotation();
+        BlockPos neg = c.getNegativeBounds();
+        BlockPos max = c.getPositiveBounds();
+        if (c == construct && pos == position && com == centerOfMass
+                && neg == negativeBounds && max == positiveBounds
+                && q.x == qx && q.y == qy && q.z == qz && q.w == qw) {
+            return;
+        }
+
+        construct = c;
+        position = pos;
+        centerOfMass = com;
+        negativeBounds = neg;
+        positiveBounds = max;
+        qx = q.x;
+        qy = q.y;
+        qz = q.z;
+        qw = q.w;
+
+        px = pos.x;
+        py = pos.y;
+        pz = pos.z;
+        comX = com.x;
+        comY = com.y;
+        comZ = com.z;
+
+        // World AABB of the rotated construct bounds, the same box the broadphase stores
+        worldBounds(c, r, hull);
+        for (int i = 0; i < 9; i++) {
+            absR[i] = Math.abs(r[i]);
+        }
+
+        // World basis
+        setAxis(0, 1, 0, 0);
+        setAxis(1, 0, 1, 0);
+        setAxis(2, 0, 0, 1);
+        // Construct axes are the columns of R
+        for (int j = 0; j < 3; j++) {
+            setAxis(3 + j, r[j], r[3 + j], r[6 + j]);
+        }
+        // World basis x construct axes
+        for (int j = 0; j < 3; j++) {
+            double ax = r[j], ay = r[3 + j], az = r[6 + j];
+            setAxis(6 + j, 0, -az, ay);      // X x aj
+            setAxis(9 + j, az, 0, -ax);      // Y x aj
+            setAxis(12 + j, -ay, ax, 0);     // Z x aj
+        }
+    }
+
+    /**
+     * Writes the world-space AABB of a construct's rotated bounds into {@code out} as {min xyz, max xyz}.
+     */
+    static void worldBounds(DynamicConstruct c, double[] r, double[] out) {
+        Vec3 pos = c.getPosition();
+        Vec3 com = c.getCenterOfMass();
+        BlockPos neg = c.getNegativeBounds();
+        BlockPos max = c.getPositiveBounds();
+        rotationMatrix(c.getRotation(), r);
+
+        double lcx = (neg.getX() + max.getX() + 1) * 0.5 - com.x;
+        double lcy = (neg.getY() + max.getY() + 1) * 0.5 - com.y;
+        double lcz = (neg.getZ() + max.getZ() + 1) * 0.5 - com.z;
+        double ex = (max.getX() + 1 - neg.getX()) * 0.5;
+        double ey = (max.getY() + 1 - neg.getY()) * 0.5;
+        double ez = (max.getZ() + 1 - neg.getZ()) * 0.5;
+        double wcx = pos.x + r[0] * lcx + r[1] * lcy + r[2] * lcz;
+        double wcy = pos.y + r[3] * lcx + r[4] * lcy + r[5] * lcz;
+        double wcz = pos.z + r[6] * lcx + r[7] * lcy + r[8] * lcz;
+        double hx = Math.abs(r[0]) * ex + Math.abs(r[1]) * ey + Math.abs(r[2]) * ez;
+        double hy = Math.abs(r[3]) * ex + Math.abs(r[4]) * ey + Math.abs(r[5]) * ez;
+        double hz = Math.abs(r[6]) * ex + Math.abs(r[7]) * ey + Math.abs(r[8]) * ez;
+        out[0] = wcx - hx;
+        out[1] = wcy - hy;
+        out[2] = wcz - hz;
+        out[3] = wcx + hx;
+        out[4] = wcy + hy;
+        out[5] = wcz + hz;
+    }
+
+    /**
+     * Row-major rotation matrix of a unit quaternion.
+     */
+    static void rotationMatrix(Quaternionf q, double[] r) {
+        double x = q.x, y = q.y, z = q.z, w = q.w;
+        r[0] = 1 - 2 * (y * y + z * z);
+        r[1] = 2 * (x * y - z * w);
+        r[2] = 2 * (x * z + y * w);
+        r[3] = 2 * (x * y + z * w);
+        r[4] = 1 - 2 * (x * x + z * z);
+        r[5] = 2 * (y * z - x * w);
+        r[6] = 2 * (x * z - y * w);
+        r[7] = 2 * (y * z + x * w);
+        r[8] = 1 - 2 * (x * x + y * y);
+    }
+
+    private void setAxis(int k, double lx, double ly, double lz) {
+        int o = k * 3;
+        axes[o] = lx;
+        axes[o + 1] = ly;
+        axes[o + 2] = lz;
+        absL[o] = Math.abs(lx);
+        absL[o + 1] = Math.abs(ly);
+        absL[o + 2] = Math.abs(lz);
+        for (int j = 0; j < 3; j++) {
+            absAL[o + j] = Math.abs(r[j] * lx + r[3 + j] * ly + r[6 + j] * lz);
+        }
+
+        double len2 = lx * lx + ly * ly + lz * lz;
+        invLen[k] = len2 < 1e-6 ? 0.0 : 1.0 / Math.sqrt(len2);
+    }
+}
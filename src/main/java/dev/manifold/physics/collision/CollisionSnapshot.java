@@ -0,0 +1,82 @@
+package dev.manifold.physics.collision;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+/**
+ * Copies of the block palettes covering a construct, taken on the server thread
+ * so a collision build can read them from a worker.
+ * <p>
+ * Mirrors {@code ManifoldRenderChunk}: air-only sections are kept as {@code null}.
+ */
+final class CollisionSnapshot {
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    final BlockPos simOrigin;
+    final BlockPos negativeBounds;
+    final BlockPos positiveBounds;
+
+    private final int minSectionX;
+    private final int minSectionY;
+    private final int minSectionZ;
+    private final int sectionsY;
+    private final int sectionsZ;
+    private final PalettedContainer<BlockState>[] sections;
+
+    @SuppressWarnings("unchecked")
+    CollisionSnapshot(ServerLevel level, BlockPos simOrigin, BlockPos negativeBounds, BlockPos positiveBounds) {
+        this.simOrigin = simOrigin;
+        this.negativeBounds = negativeBounds;
+        this.positiveBounds = positiveBounds;
+
+        BlockPos min = simOrigin.offset(negativeBounds);
+        BlockPos max = simOrigin.offset(positiveBounds);
+        this.minSectionX = SectionPos.blockToSectionCoord(min.getX());
+        this.minSectionY = SectionPos.blockToSectionCoord(min.getY());
+        this.minSectionZ = SectionPos.blockToSectionCoord(min.getZ());
+        int sectionsX = SectionPos.blockToSectionCoord(max.getX()) - minSectionX + 1;
+        this.sectionsY = SectionPos.blockToSectionCoord(max.getY()) - minSectionY + 1;
+        this.sectionsZ = SectionPos.blockToSectionCoord(max.getZ()) - minSectionZ + 1;
+        this.sections = new PalettedContainer[sectionsX * sectionsY * sectionsZ];
+
+        for (int sx = 0; sx < sectionsX; sx++) {
+            for (int sz = 0; sz < sectionsZ; sz++) {
+                LevelChunk chunk = level.getChunk(minSectionX + sx, minSectionZ + sz);
+                for (int sy = 0; sy < sectionsY; sy++) {
+                    int index = chunk.getSectionIndexFromSectionY(minSectionY + sy);
+                    if (index < 0 || index >= chunk.getSectionsCount()) continue;
+
+                    LevelChunkSection section = chunk.getSection(index);
+                    if (section.hasOnlyAir()) continue;
+                    sections[(sx * sectionsY + sy) * sectionsZ + sz] = section.getStates().copy();
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of cells the build will visit.
+     */
+    long volume() {
+        return (long) (positiveBounds.getX() - negativeBounds.getX() + 1)
+                * (positiveBounds.getY() - negativeBounds.getY() + 1)
+                * (positiveBounds.getZ() - negativeBounds.getZ() + 1);
+    }
+
+    /**
+     * Block state at an absolute sim-dimension position inside the snapshot.
+     */
+    BlockState getBlockState(int x, int y, int z) {
+        int sx = SectionPos.blockToSectionCoord(x) - minSectionX;
+        int sy = SectionPos.blockToSectionCoord(y) - minSectionY;
+        int sz = SectionPos.blockToSectionCoord(z) - minSectionZ;
+        PalettedContainer<BlockState> states = sections[(sx * sectionsY + sy) * sectionsZ + sz];
+        return states != null ? states.get(x & 15, y & 15, z & 15) : AIR;
+    }
+}
@@ -0,0 +1,108 @@
+package dev.manifold.physics.collision;
+
+import dev.manifold.DynamicConstruct;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-dimension {@link DynamicAabbTree}s over the world bounds of every construct, keyed by construct handle.
+ * <p>
+ * The server thread refits constructs as they move; entity collision and client lighting query it from
+ * their own threads, so queries take the read lock and updates the write lock.
+ */
+public final class ConstructBroadphase {
+    /**
+     * Fattening of each stored box, so small moves and rotations never touch the tree.
+     */
+    private static final double MARGIN = 2.0;
+    /**
+     * Ticks of velocity a reinserted box is stretched by along the construct's motion.
+     */
+    private static final double PREDICTED_TICKS = 4.0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<ResourceKey<Level>, DynamicAabbTree> trees = new HashMap<>();
+    // handle -> proxy id in the tree of its dimension
+    private final Int2IntOpenHashMap proxies = new Int2IntOpenHashMap();
+    private final Int2ObjectOpenHashMap<ResourceKey<Level>> dimensions = new Int2ObjectOpenHashMap<>();
+    // Server thread only
+    private final double[] rotation = new double[9];
+    private final double[] bounds = new double[6];
+
+    public ConstructBroadphase() {
+        proxies.defaultReturnValue(-1);
+    }
+
+    /**
+     * Inserts the construct, or refits it if it already is in the tree.
+     */
+    public void update(DynamicConstruct construct) {
+        CollisionPose.worldBounds(construct, rotation, bounds);
+        int handle = construct.getHandle();
+
+        lock.writeLock().lock();
+        try {
+            int proxy = proxies.get(handle);
+            ResourceKey<Level> dimension = construct.getWorldKey();
+            if (proxy >= 0 && !dimensions.get(handle).equals(dimension)) {
+                trees.get(dimensions.get(handle)).destroyProxy(proxy);
+                proxy = -1;
+            }
+
+            DynamicAabbTree tree = trees.computeIfAbsent(dimension, key -> new DynamicAabbTree());
+            if (proxy < 0) {
+                proxies.put(handle, tree.createProxy(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5], MARGIN, handle));
+                dimensions.put(handle, dimension);
+                return;
+            }
+
+            Vec3 velocity = construct.getVelocity();
+            tree.moveProxy(proxy, bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5], MARGIN,
+                    velocity.x * PREDICTED_TICKS, velocity.y * PREDICTED_TICKS, velocity.z * PREDICTED_TICKS);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(DynamicConstruct construct) {
+        int handle = construct.getHandle();
+
+        lock.writeLock().lock();
+        try {
+            int proxy = proxies.remove(handle);
+            ResourceKey<Level> dimension = dimensions.remove(handle);
+            if (proxy >= 0) {
+                trees.get(dimension).destroyProxy(proxy);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the handle of every construct in {@code dimension} whose fat bounds overlap the given box to {@code out}.
+     */
+    public void query(ResourceKey<Level> dimension,
+                      double minX, double minY, double minZ,
+                      double maxX, double maxY, double maxZ,
+                      IntArrayList out) {
+        lock.readLock().lock();
+        try {
+            DynamicAabbTree tree = trees.get(dimension);
+            if (tree != null) {
+                tree.query(minX, minY, minZ, maxX, maxY, maxZ, out);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package dev.manifold.physics.collision;
+
+import dev.manifold.physics.core.OBB;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.List;
+
+/**
+ * Static bounding volume hierarchy over a construct's local OBBs, rebuilt when a construct's edit overlay is compacted.
+ * <p>
+ * Nodes are stored flat: six doubles of bounds per node, and per node either the index of its left child
+ * (the right child follows the left subtree) or, for leaves, a range in {@link #items}. Leaves are split on the
+ * longest axis of their centroid bounds at the median until at most {@value #LEAF_SIZE} boxes remain.
+ * Queries are in construct-local space and do not allocate.
+ */
+public final class ConstructBvh {
+    private static final int LEAF_SIZE = 4;
+    private static final int MAX_DEPTH = 64;
+    // Queries run on both the server and the client thread
+    private static final ThreadLocal<int[]> STACK = ThreadLocal.withInitial(() -> new int[MAX_DEPTH * 2]);
+
+    private final double[] bounds;
+    private final int[] firstOrLeft;
+    private final int[] counts;
+    private final int[] items;
+    private int nodeCount;
+
+    public ConstructBvh(List<OBB> obbs) {
+        int n = obbs.size();
+        this.items = new int[n];
+        for (int i = 0; i < n; i++) items[i] = i;
+
+        // Local boxes are axis aligned in construct space, so their AABB is center +- extents
+        double[] boxes = new double[n * 6];
+        for (int i = 0; i < n; i++) {
+            OBB obb = obbs.get(i);
+            boxes[i * 6] = obb.c.x - obb.e.x;
+            boxes[i * 6 + 1] = obb.c.y - obb.e.y;
+            boxes[i * 6 + 2] = obb.c.z - obb.e.z;
+            boxes[i * 6 + 3] = obb.c.x + obb.e.x;
+            boxes[i * 6 + 4] = obb.c.y + obb.e.y;
+            boxes[i * 6 + 5] = obb.c.z + obb.e.z;
+        }
+
+        int maxNodes = Math.max(1, 2 * n - 1);
+        this.bounds = new double[maxNodes * 6];
+        this.firstOrLeft = new int[maxNodes];
+        this.counts = new int[maxNodes];
+
+        build(boxes, 0, n, 0);
+    }
+
+    /**
+     * Adds the index of every OBB whose bounds overlap the given local-space box to {@code out}.
+     */
+    public void query(double minX, double minY, double minZ, double maxX, double maxY, double maxZ, IntArrayList out) {
+        if (nodeCount == 0) return;
+
+        int[] stack = STACK.get();
+        int top = 0;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int node = stack[--top];
+            int b = node * 6;
+            if (bounds[b] > maxX || bounds[b + 3] < minX
+                    || bounds[b + 1] > maxY || bounds[b + 4] < minY
+                    || bounds[b + 2] > maxZ || bounds[b + 5] < minZ) {
+                continue;
+            }
+
+            int count = counts[node];
+            if (count > 0) {
+                int first = firstOrLeft[node];
+                for (int i = first; i < first + count; i++) {
+                    out.add(items[i]);
+                }
+            } else {
+                int left = firstOrLeft[node];
+                stack[top++] = left;
+                stack[top++] = -count;
+            }
+        }
+    }
+
+    private int build(double[] boxes, int start, int end, int depth) {
+        int node = nodeCount++;
+        int b = node * 6;
+        bounds[b] = bounds[b + 1] = bounds[b + 2] = Double.POSITIVE_INFINITY;
+        bounds[b + 3] = bounds[b + 4] = bounds[b + 5] = Double.NEGATIVE_INFINITY;
+
+        double cMinX = Double.POSITIVE_INFINITY, cMinY = Double.POSITIVE_INFINITY, cMinZ = Double.POSITIVE_INFINITY;
+        double cMaxX = Double.NEGATIVE_INFINITY, cMaxY = Double.NEGATIVE_INFINITY, cMaxZ = Double.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            int o = items[i] * 6;
+            for (int k = 0; k < 3; k++) {
+                bounds[b + k] = Math.min(bounds[b + k], boxes[o + k]);
+                bounds[b + 3 + k] = Math.max(bounds[b + 3 + k], boxes[o + 3 + k]);
+            }
+            double cx = boxes[o] + boxes[o + 3];
+            double cy = boxes[o + 1] + boxes[o + 4];
+            double cz = boxes[o + 2] + boxes[o + 5];
+            cMinX = Math.min(cMinX, cx); cMaxX = Math.max(cMaxX, cx);
+            cMinY = Math.min(cMinY, cy); cMaxY = Math.max(cMaxY, cy);
+            cMinZ = Math.min(cMinZ, cz); cMaxZ = Math.max(cMaxZ, cz);
+        }
+
+        int count = end - start;
+        if (count <= LEAF_SIZE || depth >= MAX_DEPTH - 1) {
+            firstOrLeft[node] = start;
+            counts[node] = count;
+            return node;
+        }
+
+        double spanX = cMaxX - cMinX, spanY = cMaxY - cMinY, spanZ = cMaxZ - cMinZ;
+        int axis = spanX >= spanY && spanX >= spanZ ? 0 : spanY >= spanZ ? 1 : 2;
+        int mid = (start + end) >>> 1;
+        select(boxes, start, end - 1, mid, axis);
+
+        // Interior nodes store the left child and the negated right child
+        int left = build(boxes, start, mid, depth + 1);
+        int right = build(boxes, mid, end, depth + 1);
+        firstOrLeft[node] = left;
+        counts[node] = -right;
+        return node;
+    }
+
+    /**
+     * Quickselect on doubled centroids so that {@code items[k]} ends up in sorted position along {@code axis}.
+     */
+    private void select(double[] boxes, int lo, int hi, int k, int axis) {
+        while (lo < hi) {
+            double pivot = centroid(boxes, items[(lo + hi) >>> 1], axis);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (centroid(boxes, items[i], axis) < pivot) i++;
+                while (centroid(boxes, items[j], axis) > pivot) j--;
+                if (i <= j) {
+                    int t = items[i];
+                    items[i] = items[j];
+                    items[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    private static double centroid(double[] boxes, int item, int axis) {
+        return boxes[item * 6 + axis] + boxes[item * 6 + 3 + axis];
+    }
+}
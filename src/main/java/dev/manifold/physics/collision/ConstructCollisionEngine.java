@@ -2,16 +2,19 @@ package dev.manifold.physics.collision;
 
 import dev.manifold.ConstructManager;
 import dev.manifold.DynamicConstruct;
-import dev.manifold.physics.core.OBB;
-import dev.manifold.physics.math.V3;
+import dev.manifold.access_holders.ConstructCollisionCandidate;
+import dev.manifold.access_holders.ConstructContactHolder;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
-import org.joml.Quaternionf;
-import org.joml.Vector3f;
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * Entity-vs-construct collision using world-space OBBs.
@@ -21,15 +24,58 @@ import java.util.List;
  * - Construct has world pose (position = COM in world, rotation about COM).
  * - We:
  *   * Take vanilla-resolved motion.
- *   * For each nearby construct:
- *       - Broadphase against construct render AABB.
- *       - For that construct, test entity AABB vs each local OBB (transformed into world space).
- *       - Use SAT to compute MTV (minimum translation vector) per overlapping OBB.
+ *   * For each construct the per-dimension broadphase tree returns for the swept entity box:
+ *       - Broadphase against the construct's rotated world AABB.
+ *       - Transform the swept entity AABB into construct-local space and query the construct's BVH,
+ *         or, on the voxel path, enumerate the occupied cells it overlaps. The entity's
+ *         {@link ConstructContactCache} skips this while it stays near the last gathered boxes.
+ *       - Test entity AABB vs each candidate local box (transformed into world space).
+ *       - Use SAT to compute MTV (minimum translation vector) per overlapping OBB,
+ *         on primitive axis data cached per construct pose (see {@link CollisionPose}).
  *       - Accumulate MTV and apply to motion, without increasing magnitude vs vanilla.
  */
 public final class ConstructCollisionEngine {
 
     private static final boolean DEBUG = false;
+    /**
+     * Slack for float rotation error between the local query and the world-space narrow phase.
+     */
+    private static final double LOCAL_QUERY_MARGIN = 1.0E-3;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    /**
+     * How far beyond a construct's swept bounds entities are marked; faster entities always take the full path.
+     */
+    private static final double CANDIDATE_MARGIN = 2.0;
+    private static final double FAST_MOTION_SQR = CANDIDATE_MARGIN * CANDIDATE_MARGIN;
+
+    private static volatile boolean candidateMarking = false;
+    private static volatile long candidateEpoch = 0L;
+    // Server thread only
+    private static final double[] MARK_ROTATION = new double[9];
+    private static final double[] MARK_BOUNDS = new double[6];
+
+    /**
+     * Per-thread working set, so the steady-state collision path allocates nothing.
+     */
+    private static final class Scratch {
+        // Swept entity box in construct-local space, {min xyz, max xyz}
+        final double[] localQuery = new double[6];
+        final IntArrayList bvhHits = new IntArrayList();
+        final IntArrayList nearby = new IntArrayList();
+        // Construct handle -> cached axis data
+        final Int2ObjectOpenHashMap<CollisionPose> poses = new Int2ObjectOpenHashMap<>();
+        final double[] mtv = new double[3];
+
+        CollisionPose pose(DynamicConstruct construct) {
+            CollisionPose pose = poses.get(construct.getHandle());
+            if (pose == null) {
+                pose = new CollisionPose();
+                poses.put(construct.getHandle(), pose);
+            }
+            pose.update(construct);
+            return pose;
+        }
+    }
 
     private ConstructCollisionEngine() {}
 
@@ -57,153 +103,217 @@ public final class ConstructCollisionEngine {
         }
 
         Level level = entity.level();
+        Scratch scratch = SCRATCH.get();
 
-        // Broad-phase: find constructs in this dimension near the entity
-        List<DynamicConstruct> nearby = ConstructManager.INSTANCE.getNearbyConstructs(
+        // Broad-phase: constructs in this dimension whose bounds the entity's swept box can reach
+        IntArrayList nearby = scratch.nearby;
+        nearby.clear();
+        ConstructManager.INSTANCE.getNearbyConstructHandles(
                 level.dimension(),
-                entity.position(),
-                4
+                startBB.minX + Math.min(0.0, vanillaResolved.x),
+                startBB.minY + Math.min(0.0, vanillaResolved.y),
+                startBB.minZ + Math.min(0.0, vanillaResolved.z),
+                startBB.maxX + Math.max(0.0, vanillaResolved.x),
+                startBB.maxY + Math.max(0.0, vanillaResolved.y),
+                startBB.maxZ + Math.max(0.0, vanillaResolved.z),
+                nearby
         );
         if (nearby.isEmpty()) return vanillaResolved;
 
+        ConstructContactCache cache = ((ConstructContactHolder) entity).manifold$getContactCache();
         Vec3 bestMotion = vanillaResolved;
 
-        for (DynamicConstruct construct : nearby) {
-            bestMotion = clipAgainstConstructObbs(construct, startBB, bestMotion);
+        for (int i = 0; i < nearby.size(); i++) {
+            DynamicConstruct construct = ConstructManager.INSTANCE.getConstructByHandle(nearby.getInt(i));
+            if (construct == null) continue;
+            bestMotion = clipAgainstConstruct(construct, scratch, cache, startBB, bestMotion);
         }
 
         return bestMotion;
     }
 
     // ------------------------------------------------------------------------
-    // Core: world-space OBB vs entity AABB
+    // Candidate marking: constructs find their entities instead of every entity looking for constructs
     // ------------------------------------------------------------------------
 
-    private static Vec3 clipAgainstConstructObbs(DynamicConstruct construct,
-                                                 AABB startBB,
-                                                 Vec3 motion) {
+    public static boolean isCandidateMarking() {
+        return candidateMarking;
+    }
 
-        if (motion.lengthSqr() == 0.0) {
-            return motion;
+    public static void setCandidateMarking(boolean enabled) {
+        candidateMarking = enabled;
+    }
+
+    /**
+     * Once per server tick: marks every entity inside a construct's swept world bounds with the current epoch.
+     */
+    public static void markCandidates(MinecraftServer server, Collection<DynamicConstruct> constructs) {
+        if (!candidateMarking) return;
+
+        long epoch = candidateEpoch + 1;
+        for (DynamicConstruct construct : constructs) {
+            ServerLevel level = server.getLevel(construct.getWorldKey());
+            if (level == null) continue;
+
+            CollisionPose.worldBounds(construct, MARK_ROTATION, MARK_BOUNDS);
+            Vec3 velocity = construct.getVelocity();
+            AABB swept = new AABB(MARK_BOUNDS[0], MARK_BOUNDS[1], MARK_BOUNDS[2], MARK_BOUNDS[3], MARK_BOUNDS[4], MARK_BOUNDS[5])
+                    .expandTowards(velocity)
+                    .inflate(CANDIDATE_MARGIN);
+
+            level.getEntities((Entity) null, swept, entity -> {
+                ((ConstructCollisionCandidate) entity).manifold$setConstructCandidateEpoch(epoch);
+                return false;
+            });
         }
+        candidateEpoch = epoch;
+    }
 
-        // Swept AABB of entity in world space (for broadphase against whole ship)
-        AABB swept = startBB.expandTowards(motion);
+    /**
+     * Whether an entity has to run construct collision at all. With candidate marking on, server entities
+     * no construct marked this tick skip it, unless they move fast enough to outrun the marking margin.
+     */
+    public static boolean isCandidate(Entity entity, long entityEpoch, Vec3 motion) {
+        if (!candidateMarking || entityEpoch == candidateEpoch) return true;
+        // Client entities are never marked
+        if (entity.level().isClientSide()) return true;
+        return motion.lengthSqr() > FAST_MOTION_SQR;
+    }
 
-        // Broad-phase: approximate construct hull as its render bounding box (world-space)
-        AABB hull = construct.getRenderBoundingBox();
-        if (!swept.intersects(hull)) {
-            return motion;
-        }
+    // ------------------------------------------------------------------------
+    // Core: world-space OBB vs entity AABB
+    // ------------------------------------------------------------------------
 
-        // World pose of construct
-        Vec3 worldPos = construct.getPosition();       // world-space COM
-        Quaternionf q = construct.getRotation();       // rotation about COM
-        Vec3 comLocal = construct.getCenterOfMass();   // COM in local (block) coords
+    private static Vec3 clipAgainstConstruct(DynamicConstruct construct,
+                                             Scratch scratch,
+                                             ConstructContactCache cache,
+                                             AABB startBB,
+                                             Vec3 motion) {
 
-        // World-space axes of the construct (columns of rotation matrix)
-        Vector3f axis0 = new Vector3f(1, 0, 0).rotate(q); // ship local X in world
-        Vector3f axis1 = new Vector3f(0, 1, 0).rotate(q); // local Y
-        Vector3f axis2 = new Vector3f(0, 0, 1).rotate(q); // local Z
+        double mx = motion.x, my = motion.y, mz = motion.z;
+        if (mx == 0.0 && my == 0.0 && mz == 0.0) {
+            return motion;
+        }
 
-        // Entity's end AABB after vanilla + previous constructs
-        AABB endBB = startBB.move(motion);
-        Vec3 entityCenter = new Vec3(
-                (endBB.minX + endBB.maxX) * 0.5,
-                (endBB.minY + endBB.maxY) * 0.5,
-                (endBB.minZ + endBB.maxZ) * 0.5
-        );
-        Vec3 entityHalfExtents = new Vec3(
-                (endBB.maxX - endBB.minX) * 0.5,
-                (endBB.maxY - endBB.minY) * 0.5,
-                (endBB.maxZ - endBB.minZ) * 0.5
-        );
+        CollisionPose pose = scratch.pose(construct);
 
-        // Fetch local-space OBBs for this construct
-        List<OBB> localObbs = ConstructCollisionManager.getLocalObbs(construct.getId());
-        if (localObbs == null || localObbs.isEmpty()) {
+        // Swept AABB of entity in world space (for broadphase against whole ship)
+        double sMinX = startBB.minX + Math.min(0.0, mx);
+        double sMinY = startBB.minY + Math.min(0.0, my);
+        double sMinZ = startBB.minZ + Math.min(0.0, mz);
+        double sMaxX = startBB.maxX + Math.max(0.0, mx);
+        double sMaxY = startBB.maxY + Math.max(0.0, my);
+        double sMaxZ = startBB.maxZ + Math.max(0.0, mz);
+
+        // Broad-phase: world AABB of the rotated construct bounds
+        double[] hull = pose.hull;
+        if (!(sMinX < hull[3] && sMaxX > hull[0]
+                && sMinY < hull[4] && sMaxY > hull[1]
+                && sMinZ < hull[5] && sMaxZ > hull[2])) {
             return motion;
         }
 
-        Vec3 totalCorrection = Vec3.ZERO;
-        AABB currentBB = endBB;
+        // Move the swept box into construct-local space once. The entity's contact cache answers while it stays
+        // near where the boxes were last gathered; otherwise re-gather from the BVH or voxel grid.
+        ConstructCollisionManager.LocalShape shape = ConstructCollisionManager.getLocalShape(construct.getId());
+        double[] query = scratch.localQuery;
+        localQueryBox(pose, sMinX, sMinY, sMinZ, sMaxX, sMaxY, sMaxZ, query);
 
-        for (OBB obb : localObbs) {
-            // World-space center of this OBB
-            Vec3 worldCenter = localToWorld(obb.c, comLocal, worldPos, q);
+        boolean voxelPath = ConstructCollisionManager.isVoxelPath();
+        ConstructContactCache.Entry contacts = cache.get(construct, shape, voxelPath);
+        if (!contacts.covers(query)) {
+            contacts.refill(query, voxelPath, scratch.bvhHits);
+        }
+        DoubleArrayList boxes = contacts.boxes;
+        if (boxes.isEmpty()) {
+            return motion;
+        }
 
-            // Quick AABB broadphase for this OBB vs entity
-            AABB obbAabb = obbWorldAabb(worldCenter, obb.e, axis0, axis1, axis2);
-            if (!obbAabb.intersects(currentBB)) {
+        // Entity's end AABB after vanilla + previous constructs
+        double ecx = (startBB.minX + startBB.maxX) * 0.5 + mx;
+        double ecy = (startBB.minY + startBB.maxY) * 0.5 + my;
+        double ecz = (startBB.minZ + startBB.maxZ) * 0.5 + mz;
+        double ehx = (startBB.maxX - startBB.minX) * 0.5;
+        double ehy = (startBB.maxY - startBB.minY) * 0.5;
+        double ehz = (startBB.maxZ - startBB.minZ) * 0.5;
+
+        double[] r = pose.r;
+        double[] absR = pose.absR;
+        double[] mtv = scratch.mtv;
+        double corrX = 0.0, corrY = 0.0, corrZ = 0.0;
+        int contactSlot = 0;
+
+        for (int i = 0; i < boxes.size(); i += 6) {
+            double ex = boxes.getDouble(i + 3);
+            double ey = boxes.getDouble(i + 4);
+            double ez = boxes.getDouble(i + 5);
+
+            // World-space center of this box: worldPos + R * (local - COM)
+            double lx = boxes.getDouble(i) - pose.comX;
+            double ly = boxes.getDouble(i + 1) - pose.comY;
+            double lz = boxes.getDouble(i + 2) - pose.comZ;
+            double wx = pose.px + r[0] * lx + r[1] * ly + r[2] * lz;
+            double wy = pose.py + r[3] * lx + r[4] * ly + r[5] * lz;
+            double wz = pose.pz + r[6] * lx + r[7] * ly + r[8] * lz;
+
+            // Quick AABB broadphase for this box vs the corrected entity box
+            double hx = absR[0] * ex + absR[1] * ey + absR[2] * ez;
+            double hy = absR[3] * ex + absR[4] * ey + absR[5] * ez;
+            double hz = absR[6] * ex + absR[7] * ey + absR[8] * ez;
+            double cx = ecx + corrX, cy = ecy + corrY, cz = ecz + corrZ;
+            if (!(wx - hx < cx + ehx && wx + hx > cx - ehx
+                    && wy - hy < cy + ehy && wy + hy > cy - ehy
+                    && wz - hz < cz + ehz && wz + hz > cz - ehz)) {
                 continue;
             }
 
-            Vec3 mtv = obbVsAabbMTV(
-                    worldCenter,
-                    obb.e,
-                    axis0, axis1, axis2,
-                    entityCenter.add(totalCorrection),
-                    entityHalfExtents
-            );
-
-            if (mtv != null) {
-                // Apply correction to entity AABB and track it
-                totalCorrection = totalCorrection.add(mtv);
-                currentBB = currentBB.move(mtv.x, mtv.y, mtv.z);
+            if (obbVsAabbMTV(pose, wx, wy, wz, ex, ey, ez, cx, cy, cz, ehx, ehy, ehz, mtv)) {
+                // Apply correction to entity box and track it
+                corrX += mtv[0];
+                corrY += mtv[1];
+                corrZ += mtv[2];
+                // Test this box first next tick
+                contacts.promote(i, contactSlot);
+                contactSlot += 6;
             }
         }
 
-        if (totalCorrection.lengthSqr() == 0.0) {
+        if (corrX == 0.0 && corrY == 0.0 && corrZ == 0.0) {
             return motion;
         }
 
         // Don't allow this collision system to increase the magnitude of motion.
-        Vec3 proposed = motion.add(totalCorrection);
-        return clampMotion(motion, proposed);
+        return new Vec3(clampAxis(mx, mx + corrX), clampAxis(my, my + corrY), clampAxis(mz, mz + corrZ));
     }
 
-    // Transform a local point (block coords) into world space using COM pivot.
-    private static Vec3 localToWorld(V3 local,
-                                     Vec3 comLocal,
-                                     Vec3 worldPos,
-                                     Quaternionf q) {
-        double lx = local.x - comLocal.x;
-        double ly = local.y - comLocal.y;
-        double lz = local.z - comLocal.z;
-
-        Vector3f v = new Vector3f((float) lx, (float) ly, (float) lz);
-        v.rotate(q);
-
-        return new Vec3(
-                worldPos.x + v.x,
-                worldPos.y + v.y,
-                worldPos.z + v.z
-        );
-    }
-
-    // Compute a conservative world-space AABB for an OBB (for broadphase).
-    private static AABB obbWorldAabb(Vec3 center,
-                                     V3 halfExtents,
-                                     Vector3f a0,
-                                     Vector3f a1,
-                                     Vector3f a2) {
-
-        // For an OBB, the AABB half-extent along world axes is:
-        // eAABB = |a0|*e0 + |a1|*e1 + |a2|*e2 (component-wise abs).
-        double ex = Math.abs(a0.x) * halfExtents.x +
-                Math.abs(a1.x) * halfExtents.y +
-                Math.abs(a2.x) * halfExtents.z;
-        double ey = Math.abs(a0.y) * halfExtents.x +
-                Math.abs(a1.y) * halfExtents.y +
-                Math.abs(a2.y) * halfExtents.z;
-        double ez = Math.abs(a0.z) * halfExtents.x +
-                Math.abs(a1.z) * halfExtents.y +
-                Math.abs(a2.z) * halfExtents.z;
-
-        return new AABB(
-                center.x - ex, center.y - ey, center.z - ez,
-                center.x + ex, center.y + ey, center.z + ez
-        );
+    // Local-space AABB enclosing a world-space box, written as {min xyz, max xyz}.
+    private static void localQueryBox(CollisionPose pose,
+                                      double minX, double minY, double minZ,
+                                      double maxX, double maxY, double maxZ,
+                                      double[] out) {
+        double cx = (minX + maxX) * 0.5 - pose.px;
+        double cy = (minY + maxY) * 0.5 - pose.py;
+        double cz = (minZ + maxZ) * 0.5 - pose.pz;
+        double ex = (maxX - minX) * 0.5;
+        double ey = (maxY - minY) * 0.5;
+        double ez = (maxZ - minZ) * 0.5;
+
+        // local = R^T * (world - worldPos) + COM; rows of R^T are the columns of R
+        double[] r = pose.r;
+        double[] absR = pose.absR;
+        double lx = r[0] * cx + r[3] * cy + r[6] * cz + pose.comX;
+        double ly = r[1] * cx + r[4] * cy + r[7] * cz + pose.comY;
+        double lz = r[2] * cx + r[5] * cy + r[8] * cz + pose.comZ;
+        double hx = absR[0] * ex + absR[3] * ey + absR[6] * ez + LOCAL_QUERY_MARGIN;
+        double hy = absR[1] * ex + absR[4] * ey + absR[7] * ez + LOCAL_QUERY_MARGIN;
+        double hz = absR[2] * ex + absR[5] * ey + absR[8] * ez + LOCAL_QUERY_MARGIN;
+
+        out[0] = lx - hx;
+        out[1] = ly - hy;
+        out[2] = lz - hz;
+        out[3] = lx + hx;
+        out[4] = ly + hy;
+        out[5] = lz + hz;
     }
 
     // ------------------------------------------------------------------------
@@ -212,130 +322,75 @@ public final class ConstructCollisionEngine {
 
     /**
      * General SAT test for:
-     *   A = OBB (center ca, half extents ea, axes a0,a1,a2)
+     *   A = OBB (center ca, half extents ea, axes from the pose)
      *   B = axis-aligned box (center cb, half extents eb along world X,Y,Z)
      *
-     * Returns MTV (vector to move B out of A) in world-space, or null if no overlap.
+     * Writes the MTV (vector to move B out of A) in world-space into {@code out}
+     * and returns true, or returns false if there is no overlap.
      */
-    private static Vec3 obbVsAabbMTV(Vec3 ca,
-                                     V3 ea,
-                                     Vector3f a0,
-                                     Vector3f a1,
-                                     Vector3f a2,
-                                     Vec3 cb,
-                                     Vec3 eb) {
-
-        // Box B world axes
-        Vector3f bx = new Vector3f(1, 0, 0);
-        Vector3f by = new Vector3f(0, 1, 0);
-        Vector3f bz = new Vector3f(0, 0, 1);
+    private static boolean obbVsAabbMTV(CollisionPose pose,
+                                        double cax, double cay, double caz,
+                                        double eax, double eay, double eaz,
+                                        double cbx, double cby, double cbz,
+                                        double ebx, double eby, double ebz,
+                                        double[] out) {
 
         // Relative center from A to B
-        Vector3f T = new Vector3f(
-                (float) (cb.x - ca.x),
-                (float) (cb.y - ca.y),
-                (float) (cb.z - ca.z)
-        );
+        double tx = cbx - cax;
+        double ty = cby - cay;
+        double tz = cbz - caz;
 
-        // Candidate axes (not normalized; we'll account for length).
-        Vector3f[] axes = new Vector3f[] {
-                new Vector3f(bx), new Vector3f(by), new Vector3f(bz),
-                new Vector3f(a0), new Vector3f(a1), new Vector3f(a2),
-                cross(bx, a0), cross(bx, a1), cross(bx, a2),
-                cross(by, a0), cross(by, a1), cross(by, a2),
-                cross(bz, a0), cross(bz, a1), cross(bz, a2)
-        };
+        double[] axes = pose.axes;
+        double[] absAL = pose.absAL;
+        double[] absL = pose.absL;
+        double[] invLen = pose.invLen;
 
         double minOverlap = Double.POSITIVE_INFINITY;
-        Vector3f bestAxis = null;
+        int bestAxis = -1;
         boolean bestAxisPointsFromAToB = true;
 
-        for (Vector3f axis : axes) {
-            float len2 = axis.lengthSquared();
-            if (len2 < 1e-6f) continue; // degenerate axis
+        for (int k = 0; k < CollisionPose.AXES; k++) {
+            double inv = invLen[k];
+            if (inv == 0.0) continue; // degenerate axis
 
+            int o = k * 3;
             // Projection radii on this axis; axis is not normalized
-            double rA = projectedRadiusOBB(ea, a0, a1, a2, axis);
-            double rB = projectedRadiusAABB(eb, axis);
+            double rA = eax * absAL[o] + eay * absAL[o + 1] + eaz * absAL[o + 2];
+            double rB = ebx * absL[o] + eby * absL[o + 1] + ebz * absL[o + 2];
 
-            double dist = dot(T, axis); // signed distance from A center to B along axis (scaled by |axis|)
-            double distAbs = Math.abs(dist);
-
-            double overlap = rA + rB - distAbs;
+            double dist = tx * axes[o] + ty * axes[o + 1] + tz * axes[o + 2]; // scaled by |axis|
+            double overlap = rA + rB - Math.abs(dist);
             if (overlap <= 0.0) {
                 // Separating axis found -> no collision
-                return null;
+                return false;
             }
 
-            // For MTV we want smallest overlap along the *normalized* axis:
-            double axisLen = Math.sqrt(len2);
-            double overlapNorm = overlap / axisLen;
-
+            // For MTV we want smallest overlap along the *normalized* axis
+            double overlapNorm = overlap * inv;
             if (overlapNorm < minOverlap) {
                 minOverlap = overlapNorm;
-                bestAxis = new Vector3f(axis);
+                bestAxis = k;
                 bestAxisPointsFromAToB = dist > 0.0;
             }
         }
 
-        if (bestAxis == null) {
-            return null;
+        if (bestAxis < 0) {
+            return false;
         }
 
-        // Normalize best axis
-        bestAxis.normalize();
-
-        double sign = bestAxisPointsFromAToB ? 1.0 : -1.0;
-        // MTV moves B (entity) out of A along bestAxis
-        return new Vec3(
-                bestAxis.x * minOverlap * sign,
-                bestAxis.y * minOverlap * sign,
-                bestAxis.z * minOverlap * sign
-        );
-    }
-
-    private static Vector3f cross(Vector3f a, Vector3f b) {
-        Vector3f out = new Vector3f();
-        a.cross(b, out);
-        return out;
-    }
-
-    private static double dot(Vector3f a, Vector3f b) {
-        return a.x * b.x + a.y * b.y + a.z * b.z;
-    }
-
-    // Projection radius of OBB on an arbitrary axis (axis not normalized).
-    private static double projectedRadiusOBB(V3 e,
-                                             Vector3f a0,
-                                             Vector3f a1,
-                                             Vector3f a2,
-                                             Vector3f axis) {
-        double ax = Math.abs(a0.dot(axis));
-        double ay = Math.abs(a1.dot(axis));
-        double az = Math.abs(a2.dot(axis));
-        return e.x * ax + e.y * ay + e.z * az;
-    }
-
-    // Projection radius of an axis-aligned box on an arbitrary axis.
-    private static double projectedRadiusAABB(Vec3 e,
-                                              Vector3f axis) {
-        double ax = Math.abs(axis.x);
-        double ay = Math.abs(axis.y);
-        double az = Math.abs(axis.z);
-        return e.x * ax + e.y * ay + e.z * az;
+        // MTV moves B (entity) out of A along the normalized best axis
+        int o = bestAxis * 3;
+        double scale = minOverlap * invLen[bestAxis] * (bestAxisPointsFromAToB ? 1.0 : -1.0);
+        out[0] = axes[o] * scale;
+        out[1] = axes[o + 1] * scale;
+        out[2] = axes[o + 2] * scale;
+        return true;
     }
 
     // ------------------------------------------------------------------------
     // Utility: keep motion from exceeding vanilla per-axis magnitude
     // ------------------------------------------------------------------------
 
-    private static Vec3 clampMotion(Vec3 base, Vec3 proposed) {
-        double x = clampAxis(base.x, proposed.x);
-        double y = clampAxis(base.y, proposed.y);
-        double z = clampAxis(base.z, proposed.z);
-        return new Vec3(x, y, z);
-    }
-
     private static double clampAxis(double base, double proposed) {
         if (base == 0.0D) return 0.0D;
         double absBase = Math.abs(base);
@@ -1,98 +1,433 @@
 package dev.manifold.physics.collision;
 
 import dev.manifold.DynamicConstruct;
+import dev.manifold.Manifold;
 import dev.manifold.mass.MassManager;
 import dev.manifold.physics.core.OBB;
 import dev.manifold.physics.math.M3;
 import dev.manifold.physics.math.V3;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.block.state.BlockState;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Stores per-construct local OBBs for collision.
  *
  * - OBBs are in construct-local block coordinates.
+ * - Block shapes come from the shared {@link BlockShapeCache}; non-colliding states are skipped.
+ * - Full cells with the same friction are greedily merged into as few boxes as possible.
+ * - The same scan also fills a {@link VoxelCollisionGrid}, an alternative per-cell representation.
+ * - Single block edits are applied in place through {@link #setBlock}; only loads and bulk
+ *   changes rescan the construct volume.
+ * - Large rescans read a {@link CollisionSnapshot} on a worker. Collision keeps using the previous
+ *   shape until the new one is published on the server thread, after replaying the edits made
+ *   while it was being built.
  * - World transform is applied at collision time using:
  *      world = worldPos + R * (local - COM)
  */
 public final class ConstructCollisionManager {
 
-    private static final Map<UUID, List<OBB>> LOCAL_OBBS = new ConcurrentHashMap<>();
+    private static final Map<UUID, LocalShape> LOCAL_SHAPES = new ConcurrentHashMap<>();
+    // Only touched on the server thread
+    private static final Map<UUID, PendingBuild> PENDING = new HashMap<>();
+    /**
+     * Constructs up to this many cells are still built inline, so small ones never lack collision.
+     */
+    private static final long INLINE_VOLUME = 1 << 15;
+    private static volatile boolean voxelPath = false;
+
+    /**
+     * An off-thread build in flight, with the edits to replay onto its result.
+     */
+    private static final class PendingBuild {
+        final LongArrayList editPositions = new LongArrayList();
+        final List<BlockState> editStates = new ArrayList<>();
+    }
 
     private ConstructCollisionManager() {}
 
-    // Called from ConstructManager.loadFromSave/createConstruct/place/break/expandBounds/updateConstructBounds/updateConstructCOMS
+    /**
+     * Whether entity collision enumerates occupied cells instead of querying the merged-box BVH.
+     */
+    public static boolean isVoxelPath() {
+        return voxelPath;
+    }
+
+    public static void setVoxelPath(boolean enabled) {
+        voxelPath = enabled;
+    }
+
+    // Called from ConstructManager.loadFromSave/createConstruct/updateConstructBounds, on the server thread
     public static void rebuild(DynamicConstruct construct, ServerLevel simLevel) {
-        List<OBB> obbs = buildLocalObbsForConstruct(construct, simLevel);
-        LOCAL_OBBS.put(construct.getId(), obbs);
+        UUID id = construct.getId();
+        CollisionSnapshot snapshot = new CollisionSnapshot(simLevel, construct.getSimOrigin(),
+                construct.getNegativeBounds(), construct.getPositiveBounds());
+
+        if (snapshot.volume() <= INLINE_VOLUME) {
+            PENDING.remove(id);
+            LOCAL_SHAPES.put(id, buildLocalShape(snapshot));
+            return;
+        }
+
+        // A newer build supersedes any in flight; its result is dropped on arrival
+        PendingBuild pending = new PendingBuild();
+        PENDING.put(id, pending);
+        CompletableFuture.supplyAsync(() -> buildLocalShape(snapshot), Util.backgroundExecutor())
+                .whenCompleteAsync((shape, error) -> {
+                    if (PENDING.get(id) != pending) return;
+                    PENDING.remove(id);
+                    if (error != null) {
+                        Manifold.LOGGER.error("Failed to build collision for construct {}", id, error);
+                        return;
+                    }
+
+                    for (int i = 0; i < pending.editPositions.size(); i++) {
+                        long pos = pending.editPositions.getLong(i);
+                        BlockState state = pending.editStates.get(i);
+                        shape.setBlock(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos),
+                                BlockShapeCache.getShape(state), estimateMu(state));
+                    }
+                    LOCAL_SHAPES.put(id, shape);
+                }, simLevel.getServer());
+    }
+
+    /**
+     * Applies a single block change at {@code rel} (relative to the sim origin) without rescanning the construct.
+     */
+    public static void setBlock(DynamicConstruct construct, BlockPos rel, BlockState state) {
+        PendingBuild pending = PENDING.get(construct.getId());
+        if (pending != null) {
+            pending.editPositions.add(rel.asLong());
+            pending.editStates.add(state);
+        }
+
+        LocalShape shape = LOCAL_SHAPES.get(construct.getId());
+        if (shape == null) return;
+        shape.setBlock(rel.getX(), rel.getY(), rel.getZ(), BlockShapeCache.getShape(state), estimateMu(state));
     }
 
     public static void remove(UUID id) {
-        LOCAL_OBBS.remove(id);
+        PENDING.remove(id);
+        LOCAL_SHAPES.remove(id);
     }
 
     /**
-     * Returns the local-space OBBs for this construct.
-     * These are immutable from the collider's perspective; do NOT modify the list.
+     * Returns a copy of the live local-space OBBs for this construct.
      */
     public static List<OBB> getLocalObbs(UUID id) {
-        List<OBB> list = LOCAL_OBBS.get(id);
-        return list != null ? list : List.of();
+        return getLocalShape(id).liveObbs();
+    }
+
+    public static LocalShape getLocalShape(UUID id) {
+        LocalShape shape = LOCAL_SHAPES.get(id);
+        return shape != null ? shape : LocalShape.EMPTY;
+    }
+
+    /**
+     * A construct's local OBBs, the BVH built over them and its occupancy grid.
+     * <p>
+     * Edits append boxes to an overlay that is scanned linearly and mark replaced boxes dead;
+     * once either grows too large the BVH is rebuilt over the live boxes. Collision queries
+     * run on the client thread too, so every access goes through the shape's monitor.
+     */
+    public static final class LocalShape {
+        private static final LocalShape EMPTY = new LocalShape(new ArrayList<>(), new LongArrayList(), new VoxelCollisionGrid(0, 0, 0, 0, 0, 0));
+        private static final int MIN_COMPACT = 64;
+        // Slack added around the grid whenever an edit falls outside it
+        private static final int GROW_MARGIN = 8;
+        // Owner tag of boxes merged from several full cells
+        private static final long MERGED = Long.MAX_VALUE;
+
+        private List<OBB> obbs;
+        // Packed owning cell of each box, or MERGED
+        private LongArrayList owners;
+        private ConstructBvh bvh;
+        private int bvhSize;
+        private final IntArrayList overlay = new IntArrayList();
+        private final BitSet dead = new BitSet();
+        private int deadCount;
+        private VoxelCollisionGrid voxels;
+        private final IntArrayList scratch = new IntArrayList();
+        // Bumped on every edit, so cached contacts know to re-gather
+        private volatile int version;
+
+        private LocalShape(List<OBB> obbs, LongArrayList owners, VoxelCollisionGrid voxels) {
+            this.obbs = obbs;
+            this.owners = owners;
+            this.bvh = new ConstructBvh(obbs);
+            this.bvhSize = obbs.size();
+            this.voxels = voxels;
+        }
+
+        /**
+         * Appends every solid box overlapping the given local-space box to {@code out}
+         * as {centerX, centerY, centerZ, halfX, halfY, halfZ} runs.
+         */
+        public synchronized void collect(double minX, double minY, double minZ,
+                                         double maxX, double maxY, double maxZ,
+                                         boolean useVoxels,
+                                         IntArrayList hits,
+                                         DoubleArrayList out) {
+            if (useVoxels) {
+                voxels.collect(minX, minY, minZ, maxX, maxY, maxZ, out);
+                return;
+            }
+
+            hits.clear();
+            query(minX, minY, minZ, maxX, maxY, maxZ, hits);
+            for (int i = 0; i < hits.size(); i++) {
+                OBB obb = obbs.get(hits.getInt(i));
+                out.add(obb.c.x);
+                out.add(obb.c.y);
+                out.add(obb.c.z);
+                out.add(obb.e.x);
+                out.add(obb.e.y);
+                out.add(obb.e.z);
+            }
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        private synchronized List<OBB> liveObbs() {
+            List<OBB> live = new ArrayList<>(obbs.size() - deadCount);
+            for (int i = 0; i < obbs.size(); i++) {
+                if (!dead.get(i)) live.add(obbs.get(i));
+            }
+            return live;
+        }
+
+        private synchronized void setBlock(int x, int y, int z, int shape, double mu) {
+            version++;
+            if (!voxels.contains(x, y, z)) {
+                if (shape == BlockShapeCache.EMPTY) return;
+                voxels = voxels.grownToInclude(x, y, z, GROW_MARGIN);
+            }
+
+            if (voxels.isOccupiedAt(x, y, z)) {
+                clearCell(x, y, z);
+                voxels.clearAt(x, y, z);
+            }
+            if (shape == BlockShapeCache.EMPTY) {
+                compactIfNeeded();
+                return;
+            }
+
+            voxels.setAt(x, y, z, shape);
+            long owner = BlockPos.asLong(x, y, z);
+            if (shape == VoxelCollisionGrid.FULL) {
+                addBox(x, y, z, x + 1, y + 1, z + 1, mu, owner);
+            } else {
+                double[] boxes = BlockShapeCache.getBoxes(shape);
+                for (int i = 0; i < boxes.length; i += 6) {
+                    addBox(x + boxes[i], y + boxes[i + 1], z + boxes[i + 2],
+                            x + boxes[i + 3], y + boxes[i + 4], z + boxes[i + 5], mu, owner);
+                }
+            }
+            compactIfNeeded();
+        }
+
+        // Kill the boxes of one cell, re-emitting what is left of any merged box that covered it.
+        private void clearCell(int x, int y, int z) {
+            long owner = BlockPos.asLong(x, y, z);
+            IntArrayList hits = scratch;
+            hits.clear();
+            query(x + 1e-3, y + 1e-3, z + 1e-3, x + 1 - 1e-3, y + 1 - 1e-3, z + 1 - 1e-3, hits);
+
+            for (int i = 0; i < hits.size(); i++) {
+                int id = hits.getInt(i);
+                long boxOwner = owners.getLong(id);
+                if (boxOwner == owner) {
+                    kill(id);
+                } else if (boxOwner == MERGED) {
+                    // Full cells are cell aligned, so an overlapping merged box contains the whole cell
+                    OBB box = obbs.get(id);
+                    kill(id);
+                    int minX = (int) Math.round(box.c.x - box.e.x), maxX = (int) Math.round(box.c.x + box.e.x);
+                    int minY = (int) Math.round(box.c.y - box.e.y), maxY = (int) Math.round(box.c.y + box.e.y);
+                    int minZ = (int) Math.round(box.c.z - box.e.z), maxZ = (int) Math.round(box.c.z + box.e.z);
+                    addMergedPart(minX, minY, minZ, x, maxY, maxZ, box.mu);
+                    addMergedPart(x + 1, minY, minZ, maxX, maxY, maxZ, box.mu);
+                    addMergedPart(x, minY, minZ, x + 1, y, maxZ, box.mu);
+                    addMergedPart(x, y + 1, minZ, x + 1, maxY, maxZ, box.mu);
+                    addMergedPart(x, y, minZ, x + 1, y + 1, z, box.mu);
+                    addMergedPart(x, y, z + 1, x + 1, y + 1, maxZ, box.mu);
+                }
+            }
+        }
+
+        private void addMergedPart(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, double mu) {
+            if (minX < maxX && minY < maxY && minZ < maxZ) {
+                addBox(minX, minY, minZ, maxX, maxY, maxZ, mu, MERGED);
+            }
+        }
+
+        private void addBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ, double mu, long owner) {
+            OBB obb = new OBB();
+            obb.c = new V3((minX + maxX) * 0.5, (minY + maxY) * 0.5, (minZ + maxZ) * 0.5);
+            obb.e = new V3((maxX - minX) * 0.5, (maxY - minY) * 0.5, (maxZ - minZ) * 0.5);
+            obb.R = M3.identity();
+            obb.mu = mu;
+            obb.id = obbs.size();
+            overlay.add(obbs.size());
+            obbs.add(obb);
+            owners.add(owner);
+        }
+
+        private void kill(int id) {
+            if (!dead.get(id)) {
+                dead.set(id);
+                deadCount++;
+            }
+        }
+
+        private void query(double minX, double minY, double minZ, double maxX, double maxY, double maxZ, IntArrayList out) {
+            int start = out.size();
+            bvh.query(minX, minY, minZ, maxX, maxY, maxZ, out);
+            // Drop boxes that died since the BVH was built
+            int w = start;
+            for (int r = start; r < out.size(); r++) {
+                int id = out.getInt(r);
+                if (!dead.get(id)) out.set(w++, id);
+            }
+            out.size(w);
+
+            for (int i = 0; i < overlay.size(); i++) {
+                int id = overlay.getInt(i);
+                if (dead.get(id)) continue;
+                OBB obb = obbs.get(id);
+                if (obb.c.x - obb.e.x > maxX || obb.c.x + obb.e.x < minX
+                        || obb.c.y - obb.e.y > maxY || obb.c.y + obb.e.y < minY
+                        || obb.c.z - obb.e.z > maxZ || obb.c.z + obb.e.z < minZ) {
+                    continue;
+                }
+                out.add(id);
+            }
+        }
+
+        // Rebuild the BVH over the live boxes once the overlay or the dead set outgrow it
+        private void compactIfNeeded() {
+            int threshold = Math.max(MIN_COMPACT, bvhSize / 4);
+            if (overlay.size() <= threshold && deadCount <= Math.max(MIN_COMPACT, obbs.size() / 2)) {
+                return;
+            }
+
+            List<OBB> live = new ArrayList<>(obbs.size() - deadCount);
+            LongArrayList liveOwners = new LongArrayList(obbs.size() - deadCount);
+            for (int i = 0; i < obbs.size(); i++) {
+                if (dead.get(i)) continue;
+                OBB obb = obbs.get(i);
+                obb.id = live.size();
+                live.add(obb);
+                liveOwners.add(owners.getLong(i));
+            }
+
+            obbs = live;
+            owners = liveOwners;
+            bvh = new ConstructBvh(live);
+            bvhSize = live.size();
+            overlay.clear();
+            dead.clear();
+            deadCount = 0;
+        }
     }
 
     // ------------------------------------------------------------------------
     // Internal: build local OBBs from sim dimension
     // ------------------------------------------------------------------------
 
-    private static List<OBB> buildLocalObbsForConstruct(DynamicConstruct construct, ServerLevel simLevel) {
+    private static LocalShape buildLocalShape(CollisionSnapshot snapshot) {
         List<OBB> out = new ArrayList<>();
+        LongArrayList owners = new LongArrayList();
+
+        BlockPos simOrigin = snapshot.simOrigin;
+        BlockPos neg = snapshot.negativeBounds;
+        BlockPos pos = snapshot.positiveBounds;
+
+        int sizeX = pos.getX() - neg.getX() + 1;
+        int sizeY = pos.getY() - neg.getY() + 1;
+        int sizeZ = pos.getZ() - neg.getZ() + 1;
+        VoxelCollisionGrid voxels = new VoxelCollisionGrid(neg.getX(), neg.getY(), neg.getZ(), sizeX, sizeY, sizeZ);
 
-        BlockPos simOrigin = construct.getSimOrigin();
-        BlockPos neg = construct.getNegativeBounds();
-        BlockPos pos = construct.getPositiveBounds();
-
-        int id = 0;
-
-        for (int x = neg.getX(); x <= pos.getX(); x++) {
-            for (int y = neg.getY(); y <= pos.getY(); y++) {
-                for (int z = neg.getZ(); z <= pos.getZ(); z++) {
-                    BlockPos rel = new BlockPos(x, y, z);
-                    BlockPos abs = simOrigin.offset(rel);
-                    BlockState state = simLevel.getBlockState(abs);
-                    if (state.isAir()) continue;
-
-                    // Axis-aligned unit cube in local space [x,x+1] etc.
-                    OBB obb = new OBB();
-                    obb.c = new V3(x + 0.5, y + 0.5, z + 0.5);   // local center in construct-space
-                    obb.e = new V3(0.5, 0.5, 0.5);               // half extents of block
-                    obb.R = M3.identity();                        // local axes = construct local axes
-                    obb.mu = estimateMu(state);                   // friction (unused by collider, but nice to have)
-                    obb.id = id++;
-
-                    out.add(obb);
+        // Label every full cell with its friction, so merged boxes never mix materials.
+        // Partial shapes (slabs, stairs, fences...) become one OBB per cached box instead.
+        short[] cells = new short[sizeX * sizeY * sizeZ];
+        DoubleArrayList mus = new DoubleArrayList();
+        int baseX = simOrigin.getX() + neg.getX();
+        int baseY = simOrigin.getY() + neg.getY();
+        int baseZ = simOrigin.getZ() + neg.getZ();
+
+        for (int x = 0; x < sizeX; x++) {
+            for (int y = 0; y < sizeY; y++) {
+                for (int z = 0; z < sizeZ; z++) {
+                    BlockState state = snapshot.getBlockState(baseX + x, baseY + y, baseZ + z);
+                    int shape = BlockShapeCache.getShape(state);
+                    if (shape == BlockShapeCache.EMPTY) continue;
+
+                    voxels.set(x, y, z, shape);
+                    double mu = estimateMu(state);
+
+                    if (shape != VoxelCollisionGrid.FULL) {
+                        long owner = BlockPos.asLong(neg.getX() + x, neg.getY() + y, neg.getZ() + z);
+                        double[] boxes = BlockShapeCache.getBoxes(shape);
+                        for (int i = 0; i < boxes.length; i += 6) {
+                            OBB obb = new OBB();
+                            obb.c = new V3(
+                                    neg.getX() + x + (boxes[i] + boxes[i + 3]) * 0.5,
+                                    neg.getY() + y + (boxes[i + 1] + boxes[i + 4]) * 0.5,
+                                    neg.getZ() + z + (boxes[i + 2] + boxes[i + 5]) * 0.5
+                            );
+                            obb.e = new V3((boxes[i + 3] - boxes[i]) * 0.5, (boxes[i + 4] - boxes[i + 1]) * 0.5, (boxes[i + 5] - boxes[i + 2]) * 0.5);
+                            obb.R = M3.identity();
+                            obb.mu = mu;
+                            obb.id = out.size();
+                            out.add(obb);
+                            owners.add(owner);
+                        }
+                        continue;
+                    }
+
+                    int label = mus.indexOf(mu);
+                    if (label < 0) {
+                        label = mus.size();
+                        mus.add(mu);
+                    }
+                    cells[GreedyBoxMerger.index(x, y, z, sizeY, sizeZ)] = (short) (label + 1);
                 }
             }
         }
 
-        if (out.isEmpty()) {
-            // Sentinel so we never have an empty list (avoids null checks).
-            OBB sentinel = new OBB();
-            sentinel.c = new V3(0, 0, 0);
-            sentinel.e = new V3(1e-4, 1e-4, 1e-4);
-            sentinel.R = M3.identity();
-            sentinel.mu = 0.6;
-            sentinel.id = -1;
-            out.add(sentinel);
-        }
+        // Axis-aligned boxes in local space, each covering a run of same-friction cells
+        GreedyBoxMerger.merge(cells, sizeX, sizeY, sizeZ, (minX, minY, minZ, maxX, maxY, maxZ, label) -> {
+            OBB obb = new OBB();
+            obb.c = new V3(
+                    neg.getX() + (minX + maxX) * 0.5,
+                    neg.getY() + (minY + maxY) * 0.5,
+                    neg.getZ() + (minZ + maxZ) * 0.5
+            );                                                              // local center in construct-space
+            obb.e = new V3((maxX - minX) * 0.5, (maxY - minY) * 0.5, (maxZ - minZ) * 0.5);
+            obb.R = M3.identity();                                          // local axes = construct local axes
+            obb.mu = mus.getDouble(label - 1);                              // friction (unused by collider, but nice to have)
+            obb.id = out.size();
+            out.add(obb);
+            owners.add(LocalShape.MERGED);
+        });
 
-        return out;
+        return new LocalShape(out, owners, voxels);
     }
 
     /**
@@ -107,4 +442,4 @@ public final class ConstructCollisionManager {
         }
         return 0.6;
     }
-}
\ No newline at end of file
+}
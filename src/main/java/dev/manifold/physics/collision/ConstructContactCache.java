@@ -0,0 +1,115 @@
+package dev.manifold.physics.collision;
+
+import dev.manifold.ConstructManager;
+import dev.manifold.DynamicConstruct;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/**
+ * Per-entity cache of the construct boxes around it, one entry per construct handle.
+ * <p>
+ * A full traversal gathers every local box under the entity's local query box grown by {@link #MARGIN}.
+ * As long as later query boxes stay inside that grown box and the construct's shape has not been edited,
+ * the gathered boxes are still a superset of what a fresh traversal would find, so the BVH or voxel grid
+ * is skipped entirely. Boxes the entity touched last time are kept at the front and tested first.
+ * <p>
+ * Entries for removed constructs are dropped by {@link #prune()}, which the owning entity runs on every move.
+ */
+public final class ConstructContactCache {
+    /**
+     * Slack around the local query box; how far the entity may drift relative to the construct before a re-traversal.
+     */
+    static final double MARGIN = 0.5;
+
+    private final Int2ObjectOpenHashMap<Entry> entries = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * Returns the entry for this construct, invalidated if it was filled for another construct, shape, shape
+     * version or collision path.
+     */
+    Entry get(DynamicConstruct construct, ConstructCollisionManager.LocalShape shape, boolean voxelPath) {
+        Entry entry = entries.get(construct.getHandle());
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(construct.getHandle(), entry);
+        }
+
+        int version = shape.getVersion();
+        if (entry.construct != construct || entry.shape != shape || entry.version != version || entry.voxelPath != voxelPath) {
+            // Replacing the references here also lets go of a superseded shape right away
+            entry.construct = construct;
+            entry.shape = shape;
+            entry.version = version;
+            entry.voxelPath = voxelPath;
+            entry.valid = false;
+        }
+        return entry;
+    }
+
+    /**
+     * Drops entries whose construct is gone, i.e. its handle no longer maps to the same construct, so a removed
+     * construct and its shape are not kept alive by the entities that once touched it.
+     */
+    public void prune() {
+        if (entries.isEmpty()) return;
+
+        ConstructManager manager = ConstructManager.INSTANCE;
+        for (ObjectIterator<Int2ObjectMap.Entry<Entry>> it = entries.int2ObjectEntrySet().fastIterator(); it.hasNext(); ) {
+            Int2ObjectMap.Entry<Entry> entry = it.next();
+            if (manager == null || manager.getConstructByHandle(entry.getIntKey()) != entry.getValue().construct) {
+                it.remove();
+            }
+        }
+    }
+
+    static final class Entry {
+        private DynamicConstruct construct;
+        private ConstructCollisionManager.LocalShape shape;
+        private int version;
+        private boolean voxelPath;
+        private boolean valid;
+        // Local box the boxes were gathered for, {min xyz, max xyz}
+        final double[] bounds = new double[6];
+        // {centerX, centerY, centerZ, halfX, halfY, halfZ} runs, last contacts first
+        final DoubleArrayList boxes = new DoubleArrayList();
+
+        /**
+         * Whether the gathered boxes still cover the given local query box.
+         */
+        boolean covers(double[] query) {
+            return valid
+                    && query[0] >= bounds[0] && query[1] >= bounds[1] && query[2] >= bounds[2]
+                    && query[3] <= bounds[3] && query[4] <= bounds[4] && query[5] <= bounds[5];
+        }
+
+        /**
+         * Re-gathers the boxes under the query box grown by {@link #MARGIN}.
+         */
+        void refill(double[] query, boolean voxelPath, IntArrayList hits) {
+            bounds[0] = query[0] - MARGIN;
+            bounds[1] = query[1] - MARGIN;
+            bounds[2] = query[2] - MARGIN;
+            bounds[3] = query[3] + MARGIN;
+            bounds[4] = query[4] + MARGIN;
+            bounds[5] = query[5] + MARGIN;
+            boxes.clear();
+            shape.collect(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5], voxelPath, hits, boxes);
+            valid = true;
+        }
+
+        /**
+         * Moves the box starting at {@code index} to slot {@code slot} (both in doubles), keeping contacts up front.
+         */
+        void promote(int index, int slot) {
+            if (index == slot) return;
+            for (int k = 0; k < 6; k++) {
+                double tmp = boxes.getDouble(slot + k);
+                boxes.set(slot + k, boxes.getDouble(index + k));
+                boxes.set(index + k, tmp);
+            }
+        }
+    }
+}
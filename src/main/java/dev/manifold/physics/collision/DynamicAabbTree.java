@@ -0,0 +1,334 @@
+package dev.manifold.physics.collision;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+
+/**
+ * Dynamic AABB tree over fattened world-space boxes, in the style of Box2D's b2DynamicTree.
+ * <p>
+ * Each proxy stores its box enlarged by a margin, so small movements don't touch the tree at all;
+ * only a box escaping its fat bounds is removed and reinserted. Insertion picks the sibling by
+ * surface-area cost and the tree is kept balanced with AVL-style rotations, so queries run in
+ * O(log n + k). Nodes live in flat arrays and are recycled through a free list.
+ * <p>
+ * Queries may run concurrently with each other but not with updates; callers synchronize.
+ */
+public final class DynamicAabbTree {
+    private static final int NULL = -1;
+    // Concurrent readers each walk with their own stack
+    private static final ThreadLocal<IntArrayList> STACK = ThreadLocal.withInitial(IntArrayList::new);
+
+    private double[] bounds = new double[16 * 6];
+    private int[] parent = new int[16];
+    private int[] child1 = new int[16];
+    private int[] child2 = new int[16];
+    private int[] height = new int[16];
+    private int[] userData = new int[16];
+    private int capacity = 16;
+    private int root = NULL;
+    private int freeList;
+
+    public DynamicAabbTree() {
+        linkFree(0);
+    }
+
+    /**
+     * Inserts a proxy whose box is the given tight box grown by {@code margin}, returning its id.
+     */
+    public int createProxy(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                           double margin, int data) {
+        int proxy = allocateNode();
+        setBounds(proxy, minX - margin, minY - margin, minZ - margin, maxX + margin, maxY + margin, maxZ + margin);
+        userData[proxy] = data;
+        height[proxy] = 0;
+        insertLeaf(proxy);
+        return proxy;
+    }
+
+    public void destroyProxy(int proxy) {
+        removeLeaf(proxy);
+        freeNode(proxy);
+    }
+
+    /**
+     * Updates a proxy with its new tight box. Returns false without touching the tree if the box
+     * is still inside the proxy's fat bounds; otherwise reinserts it with a fresh margin, extended
+     * along the displacement so a steadily moving construct is not reinserted every tick.
+     */
+    public boolean moveProxy(int proxy, double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                             double margin, double dx, double dy, double dz) {
+        int b = proxy * 6;
+        if (bounds[b] <= minX && bounds[b + 1] <= minY && bounds[b + 2] <= minZ
+                && bounds[b + 3] >= maxX && bounds[b + 4] >= maxY && bounds[b + 5] >= maxZ) {
+            return false;
+        }
+
+        removeLeaf(proxy);
+        minX -= margin;
+        minY -= margin;
+        minZ -= margin;
+        maxX += margin;
+        maxY += margin;
+        maxZ += margin;
+        if (dx < 0) minX += dx; else maxX += dx;
+        if (dy < 0) minY += dy; else maxY += dy;
+        if (dz < 0) minZ += dz; else maxZ += dz;
+        setBounds(proxy, minX, minY, minZ, maxX, maxY, maxZ);
+        insertLeaf(proxy);
+        return true;
+    }
+
+    public int getUserData(int proxy) {
+        return userData[proxy];
+    }
+
+    /**
+     * Adds the user data of every proxy whose fat box overlaps the given box to {@code out}.
+     */
+    public void query(double minX, double minY, double minZ, double maxX, double maxY, double maxZ, IntArrayList out) {
+        if (root == NULL) return;
+
+        IntArrayList stack = STACK.get();
+        stack.clear();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            int node = stack.popInt();
+            int b = node * 6;
+            if (bounds[b] > maxX || bounds[b + 3] < minX
+                    || bounds[b + 1] > maxY || bounds[b + 4] < minY
+                    || bounds[b + 2] > maxZ || bounds[b + 5] < minZ) {
+                continue;
+            }
+
+            if (child1[node] == NULL) {
+                out.add(userData[node]);
+            } else {
+                stack.add(child1[node]);
+                stack.add(child2[node]);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Node pool
+    // ------------------------------------------------------------------------
+
+    private void linkFree(int from) {
+        for (int i = from; i < capacity - 1; i++) {
+            parent[i] = i + 1;
+            height[i] = -1;
+        }
+        parent[capacity - 1] = NULL;
+        height[capacity - 1] = -1;
+        freeList = from;
+    }
+
+    private int allocateNode() {
+        if (freeList == NULL) {
+            int old = capacity;
+            capacity *= 2;
+            bounds = Arrays.copyOf(bounds, capacity * 6);
+            parent = Arrays.copyOf(parent, capacity);
+            child1 = Arrays.copyOf(child1, capacity);
+            child2 = Arrays.copyOf(child2, capacity);
+            height = Arrays.copyOf(height, capacity);
+            userData = Arrays.copyOf(userData, capacity);
+            linkFree(old);
+        }
+
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL;
+        child1[node] = NULL;
+        child2[node] = NULL;
+        height[node] = 0;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        freeList = node;
+    }
+
+    // ------------------------------------------------------------------------
+    // Insertion / removal
+    // ------------------------------------------------------------------------
+
+    private void insertLeaf(int leaf) {
+        if (root == NULL) {
+            root = leaf;
+            parent[leaf] = NULL;
+            return;
+        }
+
+        // Find the best sibling by surface area heuristic
+        int lb = leaf * 6;
+        int index = root;
+        while (child1[index] != NULL) {
+            int c1 = child1[index];
+            int c2 = child2[index];
+
+            double area = area(index * 6);
+            double combinedArea = combinedArea(index * 6, lb);
+
+            // Cost of creating a new parent for this node and the new leaf
+            double cost = 2.0 * combinedArea;
+            // Minimum cost of pushing the leaf further down the tree
+            double inheritanceCost = 2.0 * (combinedArea - area);
+
+            double cost1 = descendCost(c1, lb) + inheritanceCost;
+            double cost2 = descendCost(c2, lb) + inheritanceCost;
+
+            if (cost < cost1 && cost < cost2) break;
+            index = cost1 < cost2 ? c1 : c2;
+        }
+
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        userData[newParent] = NULL;
+        union(newParent, sibling, leaf);
+        height[newParent] = height[sibling] + 1;
+
+        if (oldParent != NULL) {
+            if (child1[oldParent] == sibling) child1[oldParent] = newParent;
+            else child2[oldParent] = newParent;
+        } else {
+            root = newParent;
+        }
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        refitUpwards(parent[leaf]);
+    }
+
+    private double descendCost(int child, int lb) {
+        double combined = combinedArea(child * 6, lb);
+        return child1[child] == NULL ? combined : combined - area(child * 6);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = child1[p] == leaf ? child2[p] : child1[p];
+
+        if (grandParent != NULL) {
+            if (child1[grandParent] == p) child1[grandParent] = sibling;
+            else child2[grandParent] = sibling;
+            parent[sibling] = grandParent;
+            freeNode(p);
+            refitUpwards(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL;
+            freeNode(p);
+        }
+    }
+
+    // Walk back up, rebalancing and refitting bounds and heights
+    private void refitUpwards(int index) {
+        while (index != NULL) {
+            index = balance(index);
+
+            int c1 = child1[index];
+            int c2 = child2[index];
+            height[index] = 1 + Math.max(height[c1], height[c2]);
+            union(index, c1, c2);
+
+            index = parent[index];
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Balancing: rotate A's taller child up if the subtrees differ by more than one level
+    // ------------------------------------------------------------------------
+
+    private int balance(int a) {
+        if (child1[a] == NULL || height[a] < 2) return a;
+
+        int b = child1[a];
+        int c = child2[a];
+        int diff = height[c] - height[b];
+
+        if (diff > 1) return rotateUp(a, c, b);
+        if (diff < -1) return rotateUp(a, b, c);
+        return a;
+    }
+
+    // Promote child 'up' of 'a' above it; 'other' stays under 'a'
+    private int rotateUp(int a, int up, int other) {
+        int f = child1[up];
+        int g = child2[up];
+
+        child1[up] = a;
+        parent[up] = parent[a];
+        parent[a] = up;
+
+        if (parent[up] != NULL) {
+            if (child1[parent[up]] == a) child1[parent[up]] = up;
+            else child2[parent[up]] = up;
+        } else {
+            root = up;
+        }
+
+        // Keep the taller grandchild under 'up'; the shorter one moves under 'a'
+        int keep = height[f] > height[g] ? f : g;
+        int move = keep == f ? g : f;
+        child2[up] = keep;
+        child1[a] = other;
+        child2[a] = move;
+        parent[move] = a;
+
+        union(a, other, move);
+        height[a] = 1 + Math.max(height[other], height[move]);
+        union(up, a, keep);
+        height[up] = 1 + Math.max(height[a], height[keep]);
+        return up;
+    }
+
+    // ------------------------------------------------------------------------
+    // Box helpers
+    // ------------------------------------------------------------------------
+
+    private void setBounds(int node, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        int b = node * 6;
+        bounds[b] = minX;
+        bounds[b + 1] = minY;
+        bounds[b + 2] = minZ;
+        bounds[b + 3] = maxX;
+        bounds[b + 4] = maxY;
+        bounds[b + 5] = maxZ;
+    }
+
+    private void union(int node, int a, int b) {
+        int ab = a * 6;
+        int bb = b * 6;
+        setBounds(node,
+                Math.min(bounds[ab], bounds[bb]), Math.min(bounds[ab + 1], bounds[bb + 1]), Math.min(bounds[ab + 2], bounds[bb + 2]),
+                Math.max(bounds[ab + 3], bounds[bb + 3]), Math.max(bounds[ab + 4], bounds[bb + 4]), Math.max(bounds[ab + 5], bounds[bb + 5]));
+    }
+
+    private double area(int b) {
+        double x = bounds[b + 3] - bounds[b];
+        double y = bounds[b + 4] - bounds[b + 1];
+        double z = bounds[b + 5] - bounds[b + 2];
+        return 2.0 * (x * y + y * z + z * x);
+    }
+
+    private double combinedArea(int a, int b) {
+        double x = Math.max(bounds[a + 3], bounds[b + 3]) - Math.min(bounds[a], bounds[b]);
+        double y = Math.max(bounds[a + 4], bounds[b + 4]) - Math.min(bounds[a + 1], bounds[b + 1]);
+        double z = Math.max(bounds[a + 5], bounds[b + 5]) - Math.min(bounds[a + 2], bounds[b + 2]);
+        return 2.0 * (x * y + y * z + z * x);
+    }
+}
@@ -0,0 +1,73 @@
+package dev.manifold.physics.collision;
+
+/**
+ * Greedy merging of labelled voxel cells into maximal axis-aligned boxes, as in greedy meshing.
+ * <p>
+ * Cells are stored x-major ({@code index = (x * sizeY + y) * sizeZ + z}), 0 marks an empty cell and any other
+ * value is a label. Only cells with the same label are merged, so faces between different materials stay intact
+ * and every box covers exactly the cells it replaces.
+ */
+public final class GreedyBoxMerger {
+    private GreedyBoxMerger() {}
+
+    public interface BoxConsumer {
+        /**
+         * Receives one merged box in cell coordinates, max exclusive.
+         */
+        void accept(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, short label);
+    }
+
+    /**
+     * Merges all cells and passes the boxes to {@code out}. Consumes {@code cells}: every cell is 0 afterwards.
+     */
+    public static void merge(short[] cells, int sizeX, int sizeY, int sizeZ, BoxConsumer out) {
+        for (int x = 0; x < sizeX; x++) {
+            for (int y = 0; y < sizeY; y++) {
+                for (int z = 0; z < sizeZ; z++) {
+                    short label = cells[index(x, y, z, sizeY, sizeZ)];
+                    if (label == 0) continue;
+
+                    // Grow along z, then whole rows along y, then whole slabs along x
+                    int maxZ = z + 1;
+                    while (maxZ < sizeZ && cells[index(x, y, maxZ, sizeY, sizeZ)] == label) maxZ++;
+
+                    int maxY = y + 1;
+                    while (maxY < sizeY && rowMatches(cells, x, maxY, z, maxZ, sizeY, sizeZ, label)) maxY++;
+
+                    int maxX = x + 1;
+                    while (maxX < sizeX && slabMatches(cells, maxX, y, maxY, z, maxZ, sizeY, sizeZ, label)) maxX++;
+
+                    for (int cx = x; cx < maxX; cx++) {
+                        for (int cy = y; cy < maxY; cy++) {
+                            int row = index(cx, cy, 0, sizeY, sizeZ);
+                            for (int cz = z; cz < maxZ; cz++) {
+                                cells[row + cz] = 0;
+                            }
+                        }
+                    }
+
+                    out.accept(x, y, z, maxX, maxY, maxZ, label);
+                }
+            }
+        }
+    }
+
+    public static int index(int x, int y, int z, int sizeY, int sizeZ) {
+        return (x * sizeY + y) * sizeZ + z;
+    }
+
+    private static boolean rowMatches(short[] cells, int x, int y, int minZ, int maxZ, int sizeY, int sizeZ, short label) {
+        int row = index(x, y, 0, sizeY, sizeZ);
+        for (int z = minZ; z < maxZ; z++) {
+            if (cells[row + z] != label) return false;
+        }
+        return true;
+    }
+
+    private static boolean slabMatches(short[] cells, int x, int minY, int maxY, int minZ, int maxZ, int sizeY, int sizeZ, short label) {
+        for (int y = minY; y < maxY; y++) {
+            if (!rowMatches(cells, x, y, minZ, maxZ, sizeY, sizeZ, label)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+package dev.manifold.physics.collision;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+/**
+ * Occupancy bitset over a construct's bounds, in construct-local block coordinates.
+ *
+ * - One bit per cell, packed into a {@code long[]} in {@link GreedyBoxMerger#index} order.
+ * - Full cubes only set their bit; other cells also map to a {@link BlockShapeCache} shape index.
+ * - Queries enumerate the cells overlapping a local box directly, so the cost scales
+ *   with the overlap volume rather than the construct size.
+ */
+public final class VoxelCollisionGrid {
+
+    /**
+     * Shape index of a plain full cube.
+     */
+    public static final int FULL = -1;
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final long[] occupied;
+    // cell index -> shape index, only for cells that are not full cubes
+    private final Int2IntOpenHashMap shapeIndices = new Int2IntOpenHashMap();
+
+    public VoxelCollisionGrid(int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.occupied = new long[(sizeX * sizeY * sizeZ + 63) >>> 6];
+        this.shapeIndices.defaultReturnValue(FULL);
+    }
+
+    /**
+     * Marks the cell at grid coordinates (x, y, z) as solid with the given {@link BlockShapeCache} shape.
+     */
+    public void set(int x, int y, int z, int shape) {
+        int index = GreedyBoxMerger.index(x, y, z, sizeY, sizeZ);
+        occupied[index >>> 6] |= 1L << index;
+        if (shape != FULL) {
+            shapeIndices.put(index, shape);
+        }
+    }
+
+    public boolean isOccupied(int x, int y, int z) {
+        int index = GreedyBoxMerger.index(x, y, z, sizeY, sizeZ);
+        return (occupied[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Whether the local block position (x, y, z) lies inside this grid.
+     */
+    public boolean contains(int x, int y, int z) {
+        return x >= originX && x < originX + sizeX
+                && y >= originY && y < originY + sizeY
+                && z >= originZ && z < originZ + sizeZ;
+    }
+
+    public boolean isOccupiedAt(int x, int y, int z) {
+        return isOccupied(x - originX, y - originY, z - originZ);
+    }
+
+    /**
+     * Same as {@link #set}, at a local block position inside the grid.
+     */
+    public void setAt(int x, int y, int z, int shape) {
+        set(x - originX, y - originY, z - originZ, shape);
+    }
+
+    public void clearAt(int x, int y, int z) {
+        int index = GreedyBoxMerger.index(x - originX, y - originY, z - originZ, sizeY, sizeZ);
+        occupied[index >>> 6] &= ~(1L << index);
+        shapeIndices.remove(index);
+    }
+
+    /**
+     * Returns a copy of this grid extended to include the local block position (x, y, z),
+     * with {@code margin} cells of slack on each side that had to grow.
+     */
+    public VoxelCollisionGrid grownToInclude(int x, int y, int z, int margin) {
+        int minX = x < originX ? x - margin : originX;
+        int minY = y < originY ? y - margin : originY;
+        int minZ = z < originZ ? z - margin : originZ;
+        int maxX = x >= originX + sizeX ? x + margin : originX + sizeX - 1;
+        int maxY = y >= originY + sizeY ? y + margin : originY + sizeY - 1;
+        int maxZ = z >= originZ + sizeZ ? z + margin : originZ + sizeZ - 1;
+        VoxelCollisionGrid grown = new VoxelCollisionGrid(minX, minY, minZ, maxX - minX + 1, maxY - minY + 1, maxZ - minZ + 1);
+
+        int plane = sizeY * sizeZ;
+        for (int word = 0; word < occupied.length; word++) {
+            long bits = occupied[word];
+            while (bits != 0L) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int cx = index / plane;
+                int cy = (index % plane) / sizeZ;
+                int cz = index % sizeZ;
+                grown.setAt(originX + cx, originY + cy, originZ + cz, shapeIndices.get(index));
+            }
+        }
+        return grown;
+    }
+
+    /**
+     * Appends every solid box overlapping the given local-space box to {@code out}
+     * as {centerX, centerY, centerZ, halfX, halfY, halfZ} runs.
+     */
+    public void collect(double minX, double minY, double minZ,
+                        double maxX, double maxY, double maxZ,
+                        DoubleArrayList out) {
+        int x0 = Math.max(0, (int) Math.floor(minX) - originX);
+        // One extra row below: fences and walls reach up to 1.5 blocks out of their cell
+        int y0 = Math.max(0, (int) Math.floor(minY) - 1 - originY);
+        int z0 = Math.max(0, (int) Math.floor(minZ) - originZ);
+        int x1 = Math.min(sizeX - 1, (int) Math.floor(maxX) - originX);
+        int y1 = Math.min(sizeY - 1, (int) Math.floor(maxY) - originY);
+        int z1 = Math.min(sizeZ - 1, (int) Math.floor(maxZ) - originZ);
+        if (x0 > x1 || y0 > y1 || z0 > z1) return;
+
+        for (int x = x0; x <= x1; x++) {
+            for (int y = y0; y <= y1; y++) {
+                int row = GreedyBoxMerger.index(x, y, 0, sizeY, sizeZ);
+                for (int z = z0; z <= z1; z++) {
+                    int index = row + z;
+                    long word = occupied[index >>> 6];
+                    if (word == 0L) {
+                        // Skip to the next word; the whole run is empty
+                        z += 63 - (index & 63);
+                        continue;
+                    }
+                    if ((word & (1L << index)) == 0) continue;
+
+                    double cornerX = originX + x;
+                    double cornerY = originY + y;
+                    double cornerZ = originZ + z;
+                    int shape = shapeIndices.get(index);
+                    if (shape == FULL) {
+                        out.add(cornerX + 0.5);
+                        out.add(cornerY + 0.5);
+                        out.add(cornerZ + 0.5);
+                        out.add(0.5);
+                        out.add(0.5);
+                        out.add(0.5);
+                        continue;
+                    }
+
+                    double[] boxes = BlockShapeCache.getBoxes(shape);
+                    for (int i = 0; i < boxes.length; i += 6) {
+                        out.add(cornerX + (boxes[i] + boxes[i + 3]) * 0.5);
+                        out.add(cornerY + (boxes[i + 1] + boxes[i + 4]) * 0.5);
+                        out.add(cornerZ + (boxes[i + 2] + boxes[i + 5]) * 0.5);
+                        out.add((boxes[i + 3] - boxes[i]) * 0.5);
+                        out.add((boxes[i + 4] - boxes[i + 1]) * 0.5);
+                        out.add((boxes[i + 5] - boxes[i + 2]) * 0.5);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package dev.manifold.sync;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntAVLTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/**
+ * Preset deflate dictionary for one construct, seeded from the block states the construct is made of.
+ * <p>
+ * Sections of a construct keep repeating the same few palette entries, the same biome container and light
+ * arrays that are almost entirely 0 or 15. Deflate can back-reference all of that from the dictionary even
+ * in the first section of a packet. Later bytes are cheaper to reference, so the layout goes from least to
+ * most common: palette ids, single value containers, light runs, biome container.
+ * <p>
+ * Every rebuild bumps {@link #getVersion()}; version 0 means no dictionary was built yet.
+ */
+public class ConstructDictionary {
+    /**
+     * Deflate cannot reference further back than its 32 KiB window.
+     */
+    private static final int MAX_SIZE = 32 * 1024;
+    /**
+     * Longest match deflate can encode.
+     */
+    private static final int MAX_MATCH = 258;
+
+    private final IntSortedSet stateIds = new IntAVLTreeSet();
+    private byte[] biomes;
+    private byte[] bytes = new byte[0];
+    private int version;
+    private boolean dirty;
+
+    /**
+     * Records the block states of a section, marking the dictionary dirty if any of them is new.
+     */
+    public void observe(LevelChunkSection section) {
+        if (biomes == null) {
+            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+            section.getBiomes().write(buf);
+            biomes = new byte[buf.readableBytes()];
+            buf.readBytes(biomes);
+        }
+
+        section.getStates().count((state, count) -> {
+            if (stateIds.add(Block.BLOCK_STATE_REGISTRY.getId(state))) {
+                dirty = true;
+            }
+        });
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void rebuild() {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+
+        for (int id : stateIds) {
+            buf.writeVarInt(id);
+        }
+
+        // Single valued containers: zero bits, the value, an empty data array
+        for (int id : stateIds) {
+            buf.writeByte(0);
+            buf.writeVarInt(id);
+            buf.writeVarInt(0);
+        }
+
+        buf.writeZero(MAX_MATCH);
+        for (int i = 0; i < MAX_MATCH; i++) {
+            buf.writeByte(0xFF);
+        }
+
+        if (biomes != null) {
+            buf.writeBytes(biomes);
+        }
+
+        // Keep the tail, it holds the most common patterns
+        int length = Math.min(buf.readableBytes(), MAX_SIZE);
+        bytes = new byte[length];
+        buf.getBytes(buf.writerIndex() - length, bytes);
+
+        version++;
+        dirty = false;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+}
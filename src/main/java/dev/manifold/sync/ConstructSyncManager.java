@@ -0,0 +1,449 @@
+package dev.manifold.sync;
+
+import dev.manifold.DynamicConstruct;
+import dev.manifold.access_holders.LayerLightStorageBridge;
+import dev.manifold.mixin.accessor.DataLayerStorageMapAccessor;
+import dev.manifold.mixin.accessor.LightEngineAccessor;
+import dev.manifold.network.packets.ConstructDictionaryS2CPacket;
+import dev.manifold.network.packets.ConstructPoseS2CPacket;
+import dev.manifold.network.packets.ConstructSectionDataS2CPacket;
+import dev.manifold.network.packets.RemoveConstructS2CPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.lighting.*;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Sends construct data to clients as deltas.
+ * <p>
+ * Only players tracking a construct (see {@link ConstructTracker}) receive its data. Leaving range sends a
+ * {@link RemoveConstructS2CPacket} and forgets what the player was sent, so coming back resends everything.
+ * <p>
+ * Block and light payloads only go out for sections whose version (see {@link SectionVersionTracker})
+ * differs from what the player was last sent. Every viewer additionally receives one batched
+ * {@link ConstructPoseS2CPacket} per tick covering all constructs it can see.
+ * <p>
+ * Section payloads are encoded once into an {@link EncodedSectionCache} and copied from there into the
+ * packet of every connection that needs them. Large bodies are deflated against a per-construct {@link ConstructDictionary}
+ * unless compression is turned off.
+ */
+public class ConstructSyncManager implements ConstructTracker.Listener {
+    private final ServerLevel simDimension;
+    private final SectionVersionTracker sectionVersions;
+    private final Map<UUID, PlayerConstructView> views = new HashMap<>();
+    private final EncodedSectionCache encodedSections = new EncodedSectionCache();
+    // Section keys each construct has encodes pooled under, so eviction never depends on its current bounds,
+    // mapped to the dictionary version the encode was deflated against (0 if it was not)
+    private final Map<UUID, Long2IntOpenHashMap> encodedKeys = new HashMap<>();
+    private final Map<UUID, ConstructDictionary> dictionaries = new HashMap<>();
+    // Latest section version each construct's dictionary has seen
+    private final Object2IntOpenHashMap<UUID> dictionaryCheckedAt = new Object2IntOpenHashMap<>();
+    private final SectionCompression compression = new SectionCompression();
+    private final ConstructTracker tracker = new ConstructTracker(this);
+    private boolean compressionEnabled = true;
+
+    /**
+     * Constructs closer than this always count as in view.
+     */
+    private static final double IN_VIEW_RADIUS_SQR = 32 * 32;
+    /**
+     * Cosine of the angle off the look direction up to which a construct counts as in view.
+     */
+    private static final double IN_VIEW_COS = Math.cos(Math.toRadians(70));
+
+    public ConstructSyncManager(ServerLevel simDimension, SectionVersionTracker sectionVersions) {
+        this.simDimension = simDimension;
+        this.sectionVersions = sectionVersions;
+        this.dictionaryCheckedAt.defaultReturnValue(-1);
+    }
+
+    /**
+     * Updates who tracks what and sends every tracking player its poses. Then each player's byte budget is spent
+     * on changed sections of its tracked constructs, highest priority first. Sections that do not fit stay
+     * unacknowledged and go out on a later tick.
+     */
+    public void tick(MinecraftServer server, Collection<DynamicConstruct> constructs) {
+        tracker.tick(server, constructs);
+        int latestVersion = sectionVersions.getLatestVersion();
+
+        for (DynamicConstruct construct : constructs) {
+            Set<UUID> trackers = tracker.getTrackers(construct.getId());
+            if (trackers.isEmpty()) continue;
+
+            ConstructDictionary dictionary = dictionaries.computeIfAbsent(construct.getId(), id -> new ConstructDictionary());
+            int checkedAt = dictionaryCheckedAt.getInt(construct.getId());
+            // Only changed sections can bring new block states
+            if (compressionEnabled && checkedAt != latestVersion) {
+                updateDictionary(construct, dictionary, checkedAt, getMinChunk(construct), getMaxChunk(construct));
+                dictionaryCheckedAt.put(construct.getId(), latestVersion);
+            }
+
+            ConstructPoseS2CPacket.Pose pose = ConstructPoseS2CPacket.Pose.of(construct);
+            for (UUID playerId : trackers) {
+                views.computeIfAbsent(playerId, id -> new PlayerConstructView()).queuePose(pose);
+            }
+        }
+
+        // Poses are tiny and late ones show as stutter, so they never wait behind section data
+        flushPoses(server);
+
+        int bytesPerTick = SyncConfig.getBytesPerTick();
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            PlayerConstructView view = views.get(player.getUUID());
+            if (view == null || !player.connection.isAcceptingMessages()) continue;
+
+            view.refillBudget(bytesPerTick);
+            if (!view.hasBudget()) continue;
+
+            List<DynamicConstruct> queue = tracker.getTracked(player.getUUID());
+            int[] order = sortByPriority(player, queue);
+            for (int index : order) {
+                if (!view.hasBudget()) break;
+                DynamicConstruct construct = queue.get(index);
+                sendSectionDelta(player, view, construct, dictionaries.get(construct.getId()), getMinChunk(construct), getMaxChunk(construct));
+            }
+        }
+    }
+
+    @Override
+    public void onStartTracking(ServerPlayer player, DynamicConstruct construct) {
+        // Its sections are queued by the scheduler like any other pending data
+        views.computeIfAbsent(player.getUUID(), id -> new PlayerConstructView());
+    }
+
+    @Override
+    public void onStopTracking(ServerPlayer player, UUID constructId) {
+        PlayerConstructView view = views.get(player.getUUID());
+        if (view != null) {
+            view.forget(constructId);
+        }
+        if (player.connection.isAcceptingMessages()) {
+            ServerPlayNetworking.send(player, new RemoveConstructS2CPacket(constructId));
+        }
+    }
+
+    /**
+     * Returns the indices of {@code queue} in send order. Each priority is computed once up front instead of
+     * on every comparison.
+     */
+    private static int[] sortByPriority(ServerPlayer player, List<DynamicConstruct> queue) {
+        int size = queue.size();
+        double[] priorities = new double[size];
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            priorities[i] = getPriority(player, queue.get(i));
+            order[i] = i;
+        }
+        IntArrays.quickSort(order, (a, b) -> Double.compare(priorities[a], priorities[b]));
+        return order;
+    }
+
+    /**
+     * Lower goes first: the squared distance, with constructs outside the player's view counted as twice as far.
+     */
+    private static double getPriority(ServerPlayer player, DynamicConstruct construct) {
+        Vec3 offset = construct.getPosition().subtract(player.getEyePosition());
+        double distanceSqr = offset.lengthSqr();
+        boolean inView = distanceSqr < IN_VIEW_RADIUS_SQR
+                || offset.dot(player.getLookAngle()) >= Math.sqrt(distanceSqr) * IN_VIEW_COS;
+        return inView ? distanceSqr : distanceSqr * 4;
+    }
+
+    /**
+     * Sends every pose queued this tick as one batched frame per player.
+     */
+    private void flushPoses(MinecraftServer server) {
+        long tick = server.getTickCount();
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            PlayerConstructView view = views.get(player.getUUID());
+            if (view == null) continue;
+
+            List<ConstructPoseS2CPacket.Pose> poses = view.drainPoses();
+            if (poses.isEmpty() || !player.connection.isAcceptingMessages()) continue;
+
+            ServerPlayNetworking.send(player, new ConstructPoseS2CPacket(tick, poses));
+        }
+    }
+
+    /**
+     * Drops everything remembered about a player, so the next tick resends full construct data.
+     * Must be called whenever the client discards its construct render cache.
+     */
+    public void forgetPlayer(UUID playerId) {
+        views.remove(playerId);
+        tracker.forgetPlayer(playerId);
+    }
+
+    /**
+     * Tells every tracking player that the construct is gone and drops its cached data.
+     */
+    public void forgetConstruct(DynamicConstruct construct) {
+        tracker.removeConstruct(construct.getId());
+        for (PlayerConstructView view : views.values()) {
+            view.forget(construct.getId());
+        }
+        dictionaries.remove(construct.getId());
+        dictionaryCheckedAt.removeInt(construct.getId());
+        evictEncodes(construct);
+        encodedKeys.remove(construct.getId());
+    }
+
+    /**
+     * Forgets what a player was sent of one construct after its client failed to apply a section packet,
+     * so the next tick resends that construct in full.
+     */
+    public void resync(UUID playerId, UUID constructId) {
+        PlayerConstructView view = views.get(playerId);
+        if (view != null) {
+            view.forget(constructId);
+        }
+    }
+
+    public boolean isTracked(UUID constructId) {
+        return !tracker.getTrackers(constructId).isEmpty();
+    }
+
+    public @Nullable PlayerConstructView getView(UUID playerId) {
+        return views.get(playerId);
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    private void evictEncodes(DynamicConstruct construct) {
+        Long2IntOpenHashMap keys = encodedKeys.get(construct.getId());
+        if (keys == null) return;
+
+        for (LongIterator it = keys.keySet().iterator(); it.hasNext(); ) {
+            encodedSections.evict(it.nextLong());
+        }
+        keys.clear();
+    }
+
+    /**
+     * Evicts only the construct's encodes that were deflated against the given dictionary version.
+     */
+    private void evictEncodes(DynamicConstruct construct, int dictionaryVersion) {
+        Long2IntOpenHashMap keys = encodedKeys.get(construct.getId());
+        if (keys == null) return;
+
+        for (ObjectIterator<Long2IntMap.Entry> it = keys.long2IntEntrySet().fastIterator(); it.hasNext(); ) {
+            Long2IntMap.Entry entry = it.next();
+            if (entry.getIntValue() != dictionaryVersion) continue;
+            encodedSections.evict(entry.getLongKey());
+            it.remove();
+        }
+    }
+
+    /**
+     * Returns all pooled encodes. Called when the server stops.
+     */
+    public void close() {
+        encodedSections.clear();
+        encodedKeys.clear();
+        compression.close();
+    }
+
+    private static ChunkPos getMinChunk(DynamicConstruct construct) {
+        AABB box = construct.getBoundingBox();
+        return new ChunkPos(Mth.floor(box.minX) >> 4, Mth.floor(box.minZ) >> 4);
+    }
+
+    private static ChunkPos getMaxChunk(DynamicConstruct construct) {
+        AABB box = construct.getBoundingBox();
+        return new ChunkPos(Mth.ceil(box.maxX) >> 4, Mth.ceil(box.maxZ) >> 4);
+    }
+
+    /**
+     * Feeds the sections that changed after {@code sinceVersion} into the construct's dictionary and rebuilds it
+     * if they brought new block states. The first build scans the whole construct so the initial burst of
+     * sections already compresses well.
+     */
+    private void updateDictionary(DynamicConstruct construct, ConstructDictionary dictionary, int sinceVersion, ChunkPos minChunk, ChunkPos maxChunk) {
+        boolean initial = dictionary.getVersion() == 0;
+        for (int cx = minChunk.x; cx <= maxChunk.x; cx++) {
+            for (int cz = minChunk.z; cz <= maxChunk.z; cz++) {
+                LevelChunk chunk = simDimension.getChunk(cx, cz);
+                LevelChunkSection[] sections = chunk.getSections();
+                for (int y = 0; y < sections.length; y++) {
+                    if (sections[y].hasOnlyAir()) continue;
+                    if (!initial && sectionVersions.getVersion(SectionPos.asLong(cx, y + chunk.getMinSection(), cz)) <= sinceVersion) continue;
+                    dictionary.observe(sections[y]);
+                }
+            }
+        }
+
+        if (initial || dictionary.isDirty()) {
+            int previous = dictionary.getVersion();
+            dictionary.rebuild();
+            // Bodies deflated against the old dictionary can't be inflated with the new one
+            if (previous != 0) evictEncodes(construct, previous);
+        }
+    }
+
+    private void sendSectionDelta(ServerPlayer player, PlayerConstructView playerView, DynamicConstruct construct, ConstructDictionary dictionary, ChunkPos minChunk, ChunkPos maxChunk) {
+        PlayerConstructView.Entry view = playerView.get(construct.getId());
+        int chunkSizeX = maxChunk.x - minChunk.x + 1;
+        int chunkSizeZ = maxChunk.z - minChunk.z + 1;
+        boolean gridChanged = !view.gridMatches(minChunk.x, minChunk.z, chunkSizeX, chunkSizeZ);
+
+        // The packet gets its own unpooled copy of the shared encodes, so nothing has to release it
+        FriendlyByteBuf chunks = new FriendlyByteBuf(Unpooled.buffer());
+        List<ByteBuf> bodies = new ArrayList<>();
+        BitSet included = new BitSet();
+        int chunkCount = 0;
+        Long2IntOpenHashMap keys = encodedKeys.computeIfAbsent(construct.getId(), id -> new Long2IntOpenHashMap());
+
+        scan:
+        for (int cx = minChunk.x; cx <= maxChunk.x; cx++) {
+            for (int cz = minChunk.z; cz <= maxChunk.z; cz++) {
+                LevelChunk chunk = simDimension.getChunk(cx, cz);
+                bodies.clear();
+                included.clear();
+
+                for (int y = 0; y < chunk.getSections().length; y++) {
+                    // Out of budget, the rest stays unacknowledged for a later tick
+                    if (!playerView.hasBudget()) {
+                        addChunk(chunks, cx - minChunk.x, cz - minChunk.z, included, bodies);
+                        if (!bodies.isEmpty()) chunkCount++;
+                        break scan;
+                    }
+
+                    int sectionY = y + chunk.getMinSection();
+                    long sectionKey = SectionPos.asLong(cx, sectionY, cz);
+
+                    int version = sectionVersions.getVersion(sectionKey);
+                    if (view.isCurrent(sectionKey, version)) continue;
+
+                    LevelChunkSection section = chunk.getSections()[y];
+                    ByteBuf encoded = encodedSections.get(sectionKey, version, () -> encodeSection(keys, sectionKey, version, section, dictionary));
+                    if (encoded == null) continue;
+                    // Only a body that is actually in the packet counts as sent
+                    view.acknowledge(sectionKey, version);
+                    playerView.recordSectionBytes(SectionCompression.rawSize(encoded), encoded.readableBytes());
+                    playerView.spendBudget(encoded.readableBytes());
+
+                    included.set(y);
+                    bodies.add(encoded);
+                }
+
+                if (bodies.isEmpty()) continue;
+                addChunk(chunks, cx - minChunk.x, cz - minChunk.z, included, bodies);
+                chunkCount++;
+            }
+        }
+
+        if (chunkCount == 0 && !gridChanged) return;
+        view.setGrid(minChunk.x, minChunk.z, chunkSizeX, chunkSizeZ);
+
+        // The dictionary has to arrive before any body deflated against it
+        if (view.getDictionaryVersion() != dictionary.getVersion()) {
+            view.setDictionaryVersion(dictionary.getVersion());
+            playerView.spendBudget(dictionary.getBytes().length);
+            ServerPlayNetworking.send(player, new ConstructDictionaryS2CPacket(construct.getId(), dictionary.getVersion(), dictionary.getBytes()));
+        }
+
+        ConstructSectionDataS2CPacket packet = new ConstructSectionDataS2CPacket(
+                construct.getId(),
+                construct.getSimOrigin(),
+                minChunk.x, minChunk.z,
+                chunkSizeX,
+                chunkSizeZ,
+                dictionary.getVersion(),
+                chunkCount,
+                chunks,
+                construct.getWorldKey()
+        );
+
+        ServerPlayNetworking.send(player, packet);
+    }
+
+    private static void addChunk(FriendlyByteBuf chunks, int dx, int dz, BitSet included, List<ByteBuf> bodies) {
+        if (bodies.isEmpty()) return;
+
+        chunks.writeVarInt(dx);
+        chunks.writeVarInt(dz);
+        chunks.writeBitSet(included);
+        for (ByteBuf body : bodies) {
+            chunks.writeBytes(body, body.readerIndex(), body.readableBytes());
+        }
+    }
+
+    /**
+     * Encodes one section body (flags, raw paletted containers, light nibbles) into a pooled buffer,
+     * deflated if that pays off. See {@link ConstructSectionDataS2CPacket} for the layout.
+     *
+     * @return the body, or null if the section was never touched and holds nothing a fresh client lacks
+     */
+    private @Nullable ByteBuf encodeSection(Long2IntOpenHashMap keys, long sectionKey, int version, @Nullable LevelChunkSection section, ConstructDictionary dictionary) {
+        keys.put(sectionKey, 0);
+        boolean hasBlocks = section != null && !section.hasOnlyAir();
+        DataLayer blockLight = getLightData(LightLayer.BLOCK, sectionKey);
+        DataLayer skyLight = getLightData(LightLayer.SKY, sectionKey);
+
+        // Untouched empty sections are already empty on a fresh client
+        if (version == 0 && !hasBlocks && blockLight == null && skyLight == null) return null;
+
+        int flags = (hasBlocks ? ConstructSectionDataS2CPacket.HAS_BLOCKS : 0)
+                | (blockLight != null ? ConstructSectionDataS2CPacket.HAS_BLOCK_LIGHT : 0)
+                | (skyLight != null ? ConstructSectionDataS2CPacket.HAS_SKY_LIGHT : 0);
+
+        int size = 1 + (hasBlocks ? section.getSerializedSize() : 0)
+                + (blockLight != null ? DataLayer.SIZE : 0)
+                + (skyLight != null ? DataLayer.SIZE : 0);
+
+        FriendlyByteBuf out = new FriendlyByteBuf(PooledByteBufAllocator.DEFAULT.buffer(size));
+        out.writeByte(flags);
+        if (hasBlocks) section.write(out);
+        if (blockLight != null) out.writeBytes(blockLight.getData());
+        if (skyLight != null) out.writeBytes(skyLight.getData());
+
+        if (!compressionEnabled) return out;
+
+        ByteBuf compressed = compression.compress(out, dictionary.getBytes());
+        if (compressed == null) return out;
+        out.release();
+        keys.put(sectionKey, dictionary.getVersion());
+        return compressed;
+    }
+
+    private @Nullable DataLayer getLightData(LightLayer layer, long sectionKey) {
+        LayerLightEventListener listener = simDimension.getLightEngine().getLayerListener(layer);
+        if (!(listener instanceof LightEngine<?, ?> engine)) return null;
+
+        LayerLightSectionStorage<?> storage = ((LightEngineAccessor) engine).manifold$getStorage();
+        DataLayerStorageMap<?> dataMap = ((LayerLightStorageBridge) storage).manifold$getUpdatingData();
+        Long2ObjectMap<DataLayer> map = ((DataLayerStorageMapAccessor) dataMap).manifold$getMap();
+
+        return map.get(sectionKey);
+    }
+}
@@ -0,0 +1,289 @@
+package dev.manifold.sync;
+
+import dev.manifold.DynamicConstruct;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+
+import java.util.*;
+
+/**
+ * Decides which players track which constructs, much like the entity tracker in vanilla's {@code ChunkMap}.
+ * <p>
+ * A player tracks a construct while the construct's chunk footprint in its render dimension is within
+ * {@link SyncConfig#getViewDistance()} chunks of the player's chunk. Interest is only re-evaluated for players
+ * that crossed a chunk border and for constructs whose footprint changed, using per-dimension chunk grids to
+ * find the other side.
+ */
+public class ConstructTracker {
+    public interface Listener {
+        void onStartTracking(ServerPlayer player, DynamicConstruct construct);
+
+        void onStopTracking(ServerPlayer player, UUID constructId);
+    }
+
+    private final Listener listener;
+    private final Map<ResourceKey<Level>, Long2ObjectOpenHashMap<Set<UUID>>> constructGrid = new HashMap<>();
+    private final Map<ResourceKey<Level>, Long2ObjectOpenHashMap<Set<UUID>>> playerGrid = new HashMap<>();
+    private final Map<UUID, TrackedConstruct> constructs = new HashMap<>();
+    private final Map<UUID, TrackedPlayer> players = new HashMap<>();
+    private int viewDistance = SyncConfig.getViewDistance();
+
+    public ConstructTracker(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void tick(MinecraftServer server, Collection<DynamicConstruct> all) {
+        boolean refreshAll = viewDistance != SyncConfig.getViewDistance();
+        viewDistance = SyncConfig.getViewDistance();
+
+        List<TrackedConstruct> movedConstructs = new ArrayList<>();
+        for (DynamicConstruct construct : all) {
+            TrackedConstruct tracked = constructs.computeIfAbsent(construct.getId(), id -> new TrackedConstruct(construct));
+            if (tracked.move(construct)) {
+                movedConstructs.add(tracked);
+            }
+        }
+
+        List<TrackedPlayer> movedPlayers = new ArrayList<>();
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            TrackedPlayer tracked = players.computeIfAbsent(player.getUUID(), id -> new TrackedPlayer());
+            if (tracked.move(player) || refreshAll) {
+                movedPlayers.add(tracked);
+            }
+        }
+
+        for (TrackedPlayer player : movedPlayers) {
+            updatePlayer(player);
+        }
+        for (TrackedConstruct construct : movedConstructs) {
+            updateConstruct(construct);
+        }
+    }
+
+    public Set<UUID> getTrackers(UUID constructId) {
+        TrackedConstruct tracked = constructs.get(constructId);
+        return tracked != null ? tracked.trackers : Set.of();
+    }
+
+    /**
+     * The constructs a player currently tracks, as a new list.
+     */
+    public List<DynamicConstruct> getTracked(UUID playerId) {
+        TrackedPlayer player = players.get(playerId);
+        if (player == null) return new ArrayList<>();
+
+        List<DynamicConstruct> result = new ArrayList<>(player.tracked.size());
+        for (UUID constructId : player.tracked) {
+            TrackedConstruct construct = constructs.get(constructId);
+            if (construct != null) result.add(construct.construct);
+        }
+        return result;
+    }
+
+    /**
+     * Stops tracking a construct for every player that tracks it, notifying the listener.
+     */
+    public void removeConstruct(UUID constructId) {
+        TrackedConstruct tracked = constructs.remove(constructId);
+        if (tracked == null) return;
+
+        tracked.unregister();
+        for (UUID playerId : List.copyOf(tracked.trackers)) {
+            TrackedPlayer player = players.get(playerId);
+            if (player != null) {
+                setTracking(player, tracked, false);
+            }
+        }
+    }
+
+    /**
+     * Drops a player without notifying the listener, the client has discarded its constructs already.
+     */
+    public void forgetPlayer(UUID playerId) {
+        TrackedPlayer tracked = players.remove(playerId);
+        if (tracked == null) return;
+
+        tracked.unregister();
+        for (UUID constructId : tracked.tracked) {
+            TrackedConstruct construct = constructs.get(constructId);
+            if (construct != null) {
+                construct.trackers.remove(playerId);
+            }
+        }
+    }
+
+    private void updatePlayer(TrackedPlayer player) {
+        Set<UUID> candidates = new HashSet<>(player.tracked);
+        Long2ObjectOpenHashMap<Set<UUID>> grid = constructGrid.get(player.dimension);
+        if (grid != null) {
+            int px = ChunkPos.getX(player.chunk);
+            int pz = ChunkPos.getZ(player.chunk);
+            for (int x = px - viewDistance; x <= px + viewDistance; x++) {
+                for (int z = pz - viewDistance; z <= pz + viewDistance; z++) {
+                    Set<UUID> cell = grid.get(ChunkPos.asLong(x, z));
+                    if (cell != null) candidates.addAll(cell);
+                }
+            }
+        }
+
+        for (UUID constructId : candidates) {
+            TrackedConstruct construct = constructs.get(constructId);
+            if (construct != null) {
+                setTracking(player, construct, isInRange(player, construct));
+            }
+        }
+    }
+
+    private void updateConstruct(TrackedConstruct construct) {
+        Set<UUID> candidates = new HashSet<>(construct.trackers);
+        Long2ObjectOpenHashMap<Set<UUID>> grid = playerGrid.get(construct.dimension);
+        if (grid != null) {
+            for (int x = construct.minX - viewDistance; x <= construct.maxX + viewDistance; x++) {
+                for (int z = construct.minZ - viewDistance; z <= construct.maxZ + viewDistance; z++) {
+                    Set<UUID> cell = grid.get(ChunkPos.asLong(x, z));
+                    if (cell != null) candidates.addAll(cell);
+                }
+            }
+        }
+
+        for (UUID playerId : candidates) {
+            TrackedPlayer player = players.get(playerId);
+            if (player != null) {
+                setTracking(player, construct, isInRange(player, construct));
+            }
+        }
+    }
+
+    private void setTracking(TrackedPlayer player, TrackedConstruct construct, boolean track) {
+        if (track) {
+            if (player.tracked.add(construct.construct.getId())) {
+                construct.trackers.add(player.player.getUUID());
+                listener.onStartTracking(player.player, construct.construct);
+            }
+        } else if (player.tracked.remove(construct.construct.getId())) {
+            construct.trackers.remove(player.player.getUUID());
+            listener.onStopTracking(player.player, construct.construct.getId());
+        }
+    }
+
+    private boolean isInRange(TrackedPlayer player, TrackedConstruct construct) {
+        if (!player.dimension.equals(construct.dimension)) return false;
+
+        int px = ChunkPos.getX(player.chunk);
+        int pz = ChunkPos.getZ(player.chunk);
+        int dx = Math.max(0, Math.max(construct.minX - px, px - construct.maxX));
+        int dz = Math.max(0, Math.max(construct.minZ - pz, pz - construct.maxZ));
+        return Math.max(dx, dz) <= viewDistance;
+    }
+
+    private static void addToCell(Map<ResourceKey<Level>, Long2ObjectOpenHashMap<Set<UUID>>> grids, ResourceKey<Level> dimension, long cell, UUID id) {
+        grids.computeIfAbsent(dimension, k -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(cell, k -> new HashSet<>())
+                .add(id);
+    }
+
+    private static void removeFromCell(Map<ResourceKey<Level>, Long2ObjectOpenHashMap<Set<UUID>>> grids, ResourceKey<Level> dimension, long cell, UUID id) {
+        Long2ObjectOpenHashMap<Set<UUID>> grid = grids.get(dimension);
+        if (grid == null) return;
+
+        Set<UUID> ids = grid.get(cell);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            grid.remove(cell);
+        }
+    }
+
+    private class TrackedConstruct {
+        private final DynamicConstruct construct;
+        private final Set<UUID> trackers = new HashSet<>();
+        private ResourceKey<Level> dimension;
+        private int minX, minZ, maxX, maxZ;
+        private boolean registered;
+
+        private TrackedConstruct(DynamicConstruct construct) {
+            this.construct = construct;
+        }
+
+        /**
+         * Updates the footprint from the construct's render bounds.
+         *
+         * @return whether the footprint changed
+         */
+        private boolean move(DynamicConstruct construct) {
+            AABB box = construct.getRenderBoundingBox();
+            int newMinX = Mth.floor(box.minX) >> 4;
+            int newMinZ = Mth.floor(box.minZ) >> 4;
+            int newMaxX = Mth.floor(box.maxX) >> 4;
+            int newMaxZ = Mth.floor(box.maxZ) >> 4;
+
+            if (registered && construct.getWorldKey().equals(dimension)
+                    && newMinX == minX && newMinZ == minZ && newMaxX == maxX && newMaxZ == maxZ) {
+                return false;
+            }
+
+            unregister();
+            dimension = construct.getWorldKey();
+            minX = newMinX;
+            minZ = newMinZ;
+            maxX = newMaxX;
+            maxZ = newMaxZ;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    addToCell(constructGrid, dimension, ChunkPos.asLong(x, z), construct.getId());
+                }
+            }
+            registered = true;
+            return true;
+        }
+
+        private void unregister() {
+            if (!registered) return;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    removeFromCell(constructGrid, dimension, ChunkPos.asLong(x, z), construct.getId());
+                }
+            }
+            registered = false;
+        }
+    }
+
+    private class TrackedPlayer {
+        private final Set<UUID> tracked = new HashSet<>();
+        private ServerPlayer player;
+        private ResourceKey<Level> dimension;
+        private long chunk;
+        private boolean registered;
+
+        /**
+         * @return whether the player entered another chunk or dimension
+         */
+        private boolean move(ServerPlayer player) {
+            // The player object is replaced on respawn
+            this.player = player;
+            ResourceKey<Level> newDimension = player.serverLevel().dimension();
+            long newChunk = player.chunkPosition().toLong();
+
+            if (registered && newDimension.equals(dimension) && newChunk == chunk) {
+                return false;
+            }
+
+            unregister();
+            dimension = newDimension;
+            chunk = newChunk;
+            addToCell(playerGrid, dimension, chunk, player.getUUID());
+            registered = true;
+            return true;
+        }
+
+        private void unregister() {
+            if (!registered) return;
+            removeFromCell(playerGrid, dimension, chunk, player.getUUID());
+            registered = false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.manifold.sync;
+
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * Encoded construct section payloads, shared between every viewer.
+ * <p>
+ * A section is encoded at most once per version into a pooled buffer. Packets copy the bytes they need
+ * when they are built and never hold on to the cached buffer, so an entry can be replaced or evicted at
+ * any time.
+ */
+public class EncodedSectionCache {
+    private final Long2ObjectOpenHashMap<Entry> entries = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Returns the encoded payload for the given section version, encoding it if needed.
+     * The returned buffer is still owned by the cache.
+     *
+     * @return the payload, or null if the encoder decided the section needs no payload
+     */
+    public @Nullable ByteBuf get(long sectionKey, int version, Supplier<ByteBuf> encoder) {
+        Entry entry = entries.get(sectionKey);
+        if (entry != null && entry.version == version) {
+            return entry.data;
+        }
+
+        if (entry != null) {
+            entry.release();
+        }
+
+        Entry created = new Entry(version, encoder.get());
+        entries.put(sectionKey, created);
+        return created.data;
+    }
+
+    public void evict(long sectionKey) {
+        Entry entry = entries.remove(sectionKey);
+        if (entry != null) {
+            entry.release();
+        }
+    }
+
+    public void clear() {
+        for (Long2ObjectMap.Entry<Entry> entry : entries.long2ObjectEntrySet()) {
+            entry.getValue().release();
+        }
+        entries.clear();
+    }
+
+    private record Entry(int version, @Nullable ByteBuf data) {
+        private void release() {
+            if (data != null) {
+                data.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package dev.manifold.sync;
+
+import dev.manifold.network.packets.ConstructPoseS2CPacket;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.util.*;
+
+/**
+ * What a single client currently holds for each construct: the chunk grid it was last told about
+ * and the version of every section it has received.
+ * <p>
+ * The play connection is reliable and ordered, so a section counts as acknowledged once it has been
+ * handed to the connection. The view is dropped whenever the client throws its render cache away
+ * (disconnect, dimension change, respawn).
+ */
+public class PlayerConstructView {
+    private final Map<UUID, Entry> constructs = new HashMap<>();
+    private List<ConstructPoseS2CPacket.Pose> pendingPoses = new ArrayList<>();
+    private long rawSectionBytes;
+    private long sentSectionBytes;
+    private long sendBudget;
+
+    public Entry get(UUID constructId) {
+        return constructs.computeIfAbsent(constructId, id -> new Entry());
+    }
+
+    public void forget(UUID constructId) {
+        constructs.remove(constructId);
+    }
+
+    public void queuePose(ConstructPoseS2CPacket.Pose pose) {
+        pendingPoses.add(pose);
+    }
+
+    public List<ConstructPoseS2CPacket.Pose> drainPoses() {
+        if (pendingPoses.isEmpty()) return List.of();
+        List<ConstructPoseS2CPacket.Pose> poses = pendingPoses;
+        pendingPoses = new ArrayList<>();
+        return poses;
+    }
+
+    /**
+     * Adds one tick worth of section budget. Unused budget carries over up to two ticks worth.
+     */
+    public void refillBudget(int bytesPerTick) {
+        sendBudget = Math.min(sendBudget + bytesPerTick, 2L * bytesPerTick);
+    }
+
+    public boolean hasBudget() {
+        return sendBudget > 0;
+    }
+
+    /**
+     * Spending may overdraw the budget by one section, the debt is paid off on the next refills.
+     */
+    public void spendBudget(int bytes) {
+        sendBudget -= bytes;
+    }
+
+    public void recordSectionBytes(int raw, int sent) {
+        rawSectionBytes += raw;
+        sentSectionBytes += sent;
+    }
+
+    /**
+     * Section body bytes this player would have received without compression.
+     */
+    public long getRawSectionBytes() {
+        return rawSectionBytes;
+    }
+
+    public long getSentSectionBytes() {
+        return sentSectionBytes;
+    }
+
+    public static class Entry {
+        private final Long2IntOpenHashMap sectionVersions = new Long2IntOpenHashMap();
+        private int minChunkX;
+        private int minChunkZ;
+        private int chunkSizeX = -1;
+        private int chunkSizeZ = -1;
+        private int dictionaryVersion;
+
+        private Entry() {
+            this.sectionVersions.defaultReturnValue(-1);
+        }
+
+        public boolean isCurrent(long sectionKey, int version) {
+            return sectionVersions.get(sectionKey) == version;
+        }
+
+        public void acknowledge(long sectionKey, int version) {
+            sectionVersions.put(sectionKey, version);
+        }
+
+        public boolean gridMatches(int minChunkX, int minChunkZ, int chunkSizeX, int chunkSizeZ) {
+            return this.minChunkX == minChunkX && this.minChunkZ == minChunkZ
+                    && this.chunkSizeX == chunkSizeX && this.chunkSizeZ == chunkSizeZ;
+        }
+
+        public void setGrid(int minChunkX, int minChunkZ, int chunkSizeX, int chunkSizeZ) {
+            this.minChunkX = minChunkX;
+            this.minChunkZ = minChunkZ;
+            this.chunkSizeX = chunkSizeX;
+            this.chunkSizeZ = chunkSizeZ;
+        }
+
+        public int getDictionaryVersion() {
+            return dictionaryVersion;
+        }
+
+        public void setDictionaryVersion(int dictionaryVersion) {
+            this.dictionaryVersion = dictionaryVersion;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.manifold.sync;
+
+import dev.manifold.network.packets.ConstructSectionDataS2CPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.VarInt;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate stage for construct section bodies.
+ * <p>
+ * A compressed body keeps its flag byte (with {@link ConstructSectionDataS2CPacket#COMPRESSED} set) followed by
+ * the varint length of the raw content, the varint length of the deflated content and the deflated content.
+ * Deflating uses the construct's {@link ConstructDictionary} as preset dictionary.
+ */
+public class SectionCompression {
+    /**
+     * Bodies smaller than this go out raw, deflate headers would eat most of the gain.
+     */
+    public static final int THRESHOLD = 256;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private byte[] scratch = new byte[0];
+
+    /**
+     * Compresses a raw body.
+     *
+     * @return a new pooled buffer, or null if the body is below {@link #THRESHOLD} or did not shrink
+     */
+    public @Nullable ByteBuf compress(ByteBuf raw, byte[] dictionary) {
+        int contentLength = raw.readableBytes() - 1;
+        if (contentLength + 1 < THRESHOLD) return null;
+        if (scratch.length < contentLength) {
+            scratch = new byte[contentLength];
+        }
+
+        deflater.reset();
+        if (dictionary.length > 0) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(raw.nioBuffer(raw.readerIndex() + 1, contentLength));
+        deflater.finish();
+
+        // If the output does not fit into the input size it is not worth sending
+        int compressedLength = deflater.deflate(scratch, 0, contentLength);
+        if (!deflater.finished()) return null;
+
+        int flags = raw.getByte(raw.readerIndex()) | ConstructSectionDataS2CPacket.COMPRESSED;
+        FriendlyByteBuf out = new FriendlyByteBuf(PooledByteBufAllocator.DEFAULT.buffer(compressedLength + 11));
+        out.writeByte(flags);
+        out.writeVarInt(contentLength);
+        out.writeVarInt(compressedLength);
+        out.writeBytes(scratch, 0, compressedLength);
+        return out;
+    }
+
+    /**
+     * The size the given body had before compression.
+     */
+    public static int rawSize(ByteBuf body) {
+        if ((body.getByte(body.readerIndex()) & ConstructSectionDataS2CPacket.COMPRESSED) == 0) {
+            return body.readableBytes();
+        }
+        ByteBuf peek = body.duplicate();
+        peek.skipBytes(1);
+        return 1 + VarInt.read(peek);
+    }
+
+    /**
+     * Reads the content of a compressed body whose flag byte has already been consumed.
+     */
+    public static FriendlyByteBuf inflate(Inflater inflater, FriendlyByteBuf buf, byte[] dictionary) throws DataFormatException {
+        int contentLength = buf.readVarInt();
+        int compressedLength = buf.readVarInt();
+        byte[] content = new byte[contentLength];
+
+        inflater.reset();
+        inflater.setInput(buf.nioBuffer(buf.readerIndex(), compressedLength));
+        buf.skipBytes(compressedLength);
+
+        int read = 0;
+        while (!inflater.finished()) {
+            int n = inflater.inflate(content, read, contentLength - read);
+            if (n == 0) {
+                if (inflater.needsDictionary()) {
+                    inflater.setDictionary(dictionary);
+                } else if (inflater.needsInput() || read == contentLength) {
+                    throw new DataFormatException("Truncated construct section body");
+                }
+            }
+            read += n;
+        }
+
+        return new FriendlyByteBuf(Unpooled.wrappedBuffer(content));
+    }
+
+    public void close() {
+        deflater.end();
+    }
+}
@@ -0,0 +1,43 @@
+package dev.manifold.sync;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+/**
+ * Per-section change counter for the sim dimension.
+ * <p>
+ * Every block or light change bumps the section's version to a new, globally increasing value.
+ * Viewers remember the last version they were sent, so a section only has to go out again
+ * when its version no longer matches.
+ * <p>
+ * Light updates arrive from the light engine thread, so all access is synchronized.
+ */
+public class SectionVersionTracker {
+    private final Long2IntOpenHashMap versions = new Long2IntOpenHashMap();
+    private int counter = 0;
+
+    public SectionVersionTracker() {
+        this.versions.defaultReturnValue(0);
+    }
+
+    public synchronized void markChanged(long sectionKey) {
+        versions.put(sectionKey, ++counter);
+    }
+
+    /**
+     * @return the current version of the section, or 0 if it has not changed since the level loaded
+     */
+    public synchronized int getVersion(long sectionKey) {
+        return versions.get(sectionKey);
+    }
+
+    /**
+     * @return the highest version handed out so far, any section change makes it grow
+     */
+    public synchronized int getLatestVersion() {
+        return counter;
+    }
+
+    public synchronized void forget(long sectionKey) {
+        versions.remove(sectionKey);
+    }
+}
@@ -0,0 +1,78 @@
+package dev.manifold.sync;
+
+import com.google.gson.*;
+import dev.manifold.Manifold;
+
+import java.io.*;
+import java.nio.file.Path;
+
+/**
+ * Server side settings for construct syncing, stored in {@code config/manifold/sync.json}.
+ */
+public class SyncConfig {
+    private static final int DEFAULT_VIEW_DISTANCE = 8;
+    private static final int DEFAULT_BYTES_PER_TICK = 32 * 1024;
+    private static Path savePath;
+
+    private static int viewDistance = DEFAULT_VIEW_DISTANCE;
+    private static int bytesPerTick = DEFAULT_BYTES_PER_TICK;
+
+    public static void init(Path configDir) {
+        savePath = configDir.resolve("sync.json");
+        load();
+    }
+
+    /**
+     * Chebyshev distance in chunks between a player and a construct's footprint at which the player starts
+     * tracking the construct.
+     */
+    public static int getViewDistance() {
+        return viewDistance;
+    }
+
+    public static void setViewDistance(int viewDistance) {
+        SyncConfig.viewDistance = viewDistance;
+    }
+
+    /**
+     * Section data each connection may be sent per tick. Poses are not limited.
+     */
+    public static int getBytesPerTick() {
+        return bytesPerTick;
+    }
+
+    public static void setBytesPerTick(int bytesPerTick) {
+        SyncConfig.bytesPerTick = bytesPerTick;
+    }
+
+    public static void save() {
+        JsonObject root = new JsonObject();
+        root.addProperty("viewDistance", viewDistance);
+        root.addProperty("bytesPerTick", bytesPerTick);
+
+        File file = savePath.toFile();
+        file.getParentFile().mkdirs();
+
+        try (Writer writer = new FileWriter(file)) {
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            gson.toJson(root, writer);
+        } catch (IOException e) {
+            Manifold.LOGGER.error("Couldn't save sync config to {}", file.getAbsolutePath(), e);
+        }
+    }
+
+    public static void load() {
+        if (!savePath.toFile().exists()) {
+            save();
+            return;
+        }
+
+        try (Reader reader = new FileReader(savePath.toFile())) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            if (root.has("viewDistance")) viewDistance = root.get("viewDistance").getAsInt();
+            if (root.has("bytesPerTick")) bytesPerTick = root.get("bytesPerTick").getAsInt();
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            Manifold.LOGGER.error("Failed to load sync config", e);
+        }
+    }
+}